@@ -0,0 +1,139 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Minimal HTTP load generator for scripts/load-test.sh, run as a single-file
+ * program: {@code java scripts/LoadGenerator.java -z 20s -c 100 [-m POST]
+ * [-H "Name: value"]... [-T content-type] [-d body] url}. The options follow
+ * hey's, and like hey it asks for gzip unless an Accept-Encoding header is
+ * given; bodies are discarded without being decompressed. Each of the
+ * {@code -c} workers sends requests back to back until the duration is up,
+ * then one line is printed: requests per second, the 99th percentile latency
+ * in milliseconds and the number of failed requests (non-2xx responses and
+ * errors).
+ */
+public class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        long durationNanos = 0;
+        int concurrency = 50;
+        String method = "GET";
+        List<String> headers = new ArrayList<>();
+        String body = null;
+        String url = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-z" -> durationNanos = parseDuration(args[++i]).toNanos();
+                case "-c" -> concurrency = Integer.parseInt(args[++i]);
+                case "-m" -> method = args[++i];
+                case "-H" -> headers.add(args[++i]);
+                case "-T" -> headers.add("Content-Type: " + args[++i]);
+                case "-d" -> body = args[++i];
+                default -> url = args[i];
+            }
+        }
+        if (url == null || durationNanos <= 0) {
+            System.err.println("Usage: java LoadGenerator.java -z <duration> -c <concurrency> [-m method] "
+                    + "[-H header]... [-T content-type] [-d body] <url>");
+            System.exit(2);
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT)
+                .method(method, body != null ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        for (String header : headers) {
+            int separator = header.indexOf(':');
+            builder.header(header.substring(0, separator).trim(), header.substring(separator + 1).trim());
+        }
+        if (headers.stream().noneMatch(header -> header.regionMatches(true, 0, "Accept-Encoding:", 0, 16))) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        HttpRequest request = builder.build();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        List<Future<Worker>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> new Worker().run(client, request, deadline)));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = new long[0];
+        long failed = 0;
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            failed += worker.failed;
+        }
+        Arrays.sort(latencies);
+        long p99Nanos = latencies.length > 0 ? latencies[(int) Math.ceil(latencies.length * 0.99) - 1] : 0;
+
+        System.out.printf("%.1f %d %d%n", latencies.length / elapsedSeconds, p99Nanos / 1_000_000, failed);
+        client.shutdownNow();
+    }
+
+    // "20s", "2m" or "500ms", as hey takes them
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration: " + value);
+        };
+    }
+
+    // One connection's worth of requests: latency of every completed request, and how many failed
+    private static final class Worker {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long failed;
+
+        Worker run(HttpClient client, HttpRequest request, long deadline) {
+            while (System.nanoTime() < deadline) {
+                long sent = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 != 2) {
+                        failed++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    failed++;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - sent;
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+#!/bin/bash
+
+# Script to compare the highest sustainable concurrency of platform-thread and virtual-thread request handling
+# Usage: ./load-test.sh [username] [password]
+#
+# Needs a built jar (./mvnw package -DskipTests) and the database running. Load comes from LoadGenerator.java,
+# next to this script, which only needs the JDK; it runs on the same machine, so it shares the CPU. For each mode
+# the application is started with the scheduler disabled (so no provider quota is used), the user is registered
+# if needed, and each endpoint is loaded at increasing concurrency for DURATION. A level is sustainable when
+# every response is 2xx and the 99th percentile latency stays within P99_LIMIT_MS.
+#
+# Settings (environment): LEVELS, DURATION, P99_LIMIT_MS, PORT
+
+USERNAME=${1:-loadtest}
+PASSWORD=${2:-loadtest-password}
+LEVELS=${LEVELS:-"25 50 100 200 400 800 1600"}
+DURATION=${DURATION:-20s}
+P99_LIMIT_MS=${P99_LIMIT_MS:-1000}
+PORT=${PORT:-18080}
+BASE_URL="http://localhost:$PORT/api"
+
+cd "$(dirname "$0")/.."
+
+# Load environment variables
+if [ -f "./backend.env" ]; then
+  set -a
+  source "./backend.env"
+  set +a
+fi
+
+JAR=$(ls target/trading-app-*.jar 2>/dev/null | head -1)
+if [ -z "$JAR" ]; then
+  echo "Error: build the application first (./mvnw package -DskipTests)"
+  exit 1
+fi
+
+GENERATOR_DIR=$(mktemp -d)
+if ! javac -d "$GENERATOR_DIR" scripts/LoadGenerator.java; then
+  echo "Error: could not compile the load generator"
+  exit 1
+fi
+
+LOGIN_BODY="{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}"
+
+start_app() {
+  java -jar "$JAR" --server.port=$PORT --app.market.scheduler.enabled=false \
+    --spring.threads.virtual.enabled=$1 > "$LOG" 2>&1 &
+  APP_PID=$!
+  for _ in $(seq 1 120); do
+    if curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+      return 0
+    fi
+    if ! kill -0 $APP_PID 2>/dev/null; then
+      break
+    fi
+    sleep 1
+  done
+  echo "Error: application did not start, see $LOG"
+  return 1
+}
+
+stop_app() {
+  kill $APP_PID 2>/dev/null
+  wait $APP_PID 2>/dev/null
+}
+
+login() {
+  curl -s -o /dev/null -H "Content-Type: application/json" -d "{\"username\":\"$USERNAME\",\"email\":\"$USERNAME@example.com\",\"password\":\"$PASSWORD\",\"firstName\":\"Load\",\"lastName\":\"Test\"}" \
+    "$BASE_URL/auth/register"
+  curl -s -H "Content-Type: application/json" -d "$LOGIN_BODY" "$BASE_URL/auth/login" \
+    | sed -n 's/.*"token":"\([^"]*\)".*/\1/p'
+}
+
+# Runs the load generator at one concurrency level and prints "rps p99_ms failed"
+run_level() {
+  local concurrency=$1
+  shift
+  java -cp "$GENERATOR_DIR" LoadGenerator -z "$DURATION" -c "$concurrency" "$@"
+}
+
+# Steps through LEVELS until a level isn't sustainable and prints the highest one that was
+max_concurrency() {
+  local name=$1
+  shift
+  local best=0
+  for level in $LEVELS; do
+    read rps p99 failed <<< "$(run_level "$level" "$@")"
+    echo "  $name c=$level: ${rps} req/s, p99 ${p99}ms, ${failed} failed" >&2
+    if [ "$failed" -gt 0 ] || [ "$p99" -gt "$P99_LIMIT_MS" ]; then
+      break
+    fi
+    best=$level
+  done
+  echo "$best"
+}
+
+LOG=$(mktemp)
+RESULTS=()
+for virtual in false true; do
+  mode=$([ "$virtual" = true ] && echo virtual || echo platform)
+  echo "Mode: $mode threads"
+  start_app $virtual || exit 1
+
+  TOKEN=$(login)
+  if [ -z "$TOKEN" ]; then
+    echo "Error: could not log in as $USERNAME"
+    stop_app
+    exit 1
+  fi
+  AUTH="Authorization: Bearer $TOKEN"
+
+  instruments=$(max_concurrency instruments -H "$AUTH" "$BASE_URL/market/instruments")
+  favorites=$(max_concurrency favorites -H "$AUTH" "$BASE_URL/favorites")
+  login=$(max_concurrency login -m POST -T application/json -d "$LOGIN_BODY" "$BASE_URL/auth/login")
+  RESULTS+=("$mode $instruments $favorites $login")
+  stop_app
+done
+rm -rf "$LOG" "$GENERATOR_DIR"
+
+echo
+echo "Highest sustainable concurrency (p99 <= ${P99_LIMIT_MS}ms, no failures, $DURATION per level)"
+printf '%-10s %12s %12s %12s\n' mode instruments favorites login
+for result in "${RESULTS[@]}"; do
+  printf '%-10s %12s %12s %12s\n' $result
+done
@@ -50,6 +50,10 @@ WHERE NOT EXISTS (
   JOIN user_data ud ON ur.user_id = ud.id
   JOIN role_data rd ON ur.role_id = rd.id
 );
+-- Stop trusting the roles in the user's existing tokens (picked up by every instance within app.jwt.revocation-poll-ms)
+INSERT INTO token_revocations (user_id, revoked_at)
+SELECT id, now() FROM users WHERE email = '$EMAIL'
+ON CONFLICT (user_id) DO UPDATE SET revoked_at = EXCLUDED.revoked_at;
 "
 
 # Execute SQL command
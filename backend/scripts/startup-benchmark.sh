@@ -0,0 +1,91 @@
+#!/bin/bash
+
+# Script to compare cold start to ready of the standard and fast-startup builds
+# Usage: ./startup-benchmark.sh [runs]
+#
+# Build both first, with the database running:
+#   ./mvnw package -DskipTests && ./mvnw -Pfast-startup package -DskipTests
+# Each run starts a fresh JVM on a random port with the scheduler disabled (so no provider quota is used),
+# waits for the "Started TradingAppApplication" line and stops it. The figure reported is the JVM's uptime
+# at that point, as printed by Spring Boot ("process running for").
+
+RUNS=${1:-5}
+
+cd "$(dirname "$0")/.."
+
+# Load environment variables
+if [ -f "./backend.env" ]; then
+  set -a
+  source "./backend.env"
+  set +a
+fi
+
+STANDARD_JAR=$(cd target 2>/dev/null && ls trading-app-*.jar 2>/dev/null | head -1)
+FAST_DIR=target/fast-startup
+FAST_JAR=$(cd $FAST_DIR 2>/dev/null && ls *-fast-startup.jar 2>/dev/null | head -1)
+
+if [ -z "$STANDARD_JAR" ] || [ -z "$FAST_JAR" ]; then
+  echo "Error: build the standard jar and the fast-startup profile first"
+  exit 1
+fi
+if [ ! -f "$FAST_DIR/app.jsa" ]; then
+  echo "Warning: $FAST_DIR/app.jsa is missing, fast-startup runs will not use a CDS archive"
+fi
+
+APP_ARGS="--server.port=0 --app.market.scheduler.enabled=false"
+
+# Prints the seconds from JVM start to ready for one run of the given command in the given directory
+time_to_ready() {
+  local dir=$1
+  shift
+  local log=$(mktemp)
+  (cd "$dir" && exec "$@" $APP_ARGS) > "$log" 2>&1 &
+  local pid=$!
+
+  local ready=""
+  for _ in $(seq 1 600); do
+    ready=$(sed -n 's/.*Started TradingAppApplication in [0-9.]* seconds (process running for \([0-9.]*\)).*/\1/p' "$log")
+    if [ -n "$ready" ] || ! kill -0 $pid 2>/dev/null; then
+      break
+    fi
+    sleep 0.1
+  done
+
+  kill $pid 2>/dev/null
+  wait $pid 2>/dev/null
+  if [ -z "$ready" ]; then
+    echo "Error: application did not start, log follows" >&2
+    cat "$log" >&2
+    rm -f "$log"
+    return 1
+  fi
+  rm -f "$log"
+  echo "$ready"
+}
+
+# Runs a mode RUNS times and prints each time and the median
+benchmark() {
+  local name=$1
+  local dir=$2
+  shift 2
+  local times=()
+  for run in $(seq 1 $RUNS); do
+    local seconds
+    seconds=$(time_to_ready "$dir" "$@") || exit 1
+    times+=("$seconds")
+    echo "$name run $run: ${seconds}s"
+  done
+  local median=$(printf '%s\n' "${times[@]}" | sort -n | awk '{ a[NR] = $1 } END { print (NR % 2) ? a[(NR + 1) / 2] : (a[NR / 2] + a[NR / 2 + 1]) / 2 }')
+  echo "$name median: ${median}s"
+}
+
+echo "Startup benchmark, $RUNS runs per mode, $(java -version 2>&1 | head -1)"
+
+benchmark standard target java -jar "$STANDARD_JAR"
+
+# Run from the directory the archive was recorded in, so the class path matches it
+CDS_ARGS=""
+if [ -f "$FAST_DIR/app.jsa" ]; then
+  CDS_ARGS="-XX:SharedArchiveFile=app.jsa"
+fi
+benchmark fast-startup $FAST_DIR java $CDS_ARGS -Dspring.aot.enabled=true -jar "$FAST_JAR"
@@ -1,24 +1,67 @@
 package com.puente.tradingapp.controller;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.model.PriceBar.BarInterval;
+import com.puente.tradingapp.payload.response.InstrumentChangesResponse;
+import com.puente.tradingapp.payload.response.InstrumentPageResponse;
 import com.puente.tradingapp.payload.response.InstrumentResponse;
+import com.puente.tradingapp.payload.response.MessageResponse;
+import com.puente.tradingapp.payload.response.PriceBarResponse;
 import com.puente.tradingapp.security.service.UserDetailsImpl;
 import com.puente.tradingapp.service.FavoriteService;
 import com.puente.tradingapp.service.MarketDataService;
+import com.puente.tradingapp.service.PriceHistoryService;
+import com.puente.tradingapp.service.schedule.RefreshScheduler;
+import com.puente.tradingapp.service.search.InstrumentSearchIndex;
+import com.puente.tradingapp.service.snapshot.ChangeCursor;
+import com.puente.tradingapp.service.snapshot.InstrumentIndex.SortField;
+import com.puente.tradingapp.service.snapshot.InstrumentJsonRenderer;
+import com.puente.tradingapp.service.snapshot.InstrumentPage;
+import com.puente.tradingapp.service.snapshot.InstrumentQuery;
+import com.puente.tradingapp.service.snapshot.QuoteChanges;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshot;
+import com.puente.tradingapp.service.snapshot.RenderedInstruments;
+import com.puente.tradingapp.service.stream.QuoteStreamService;
+import com.puente.tradingapp.service.universe.InstrumentUniverse;
+import com.puente.tradingapp.util.LongIdSet;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -28,45 +71,259 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @SecurityRequirement(name = "Bearer Authentication")
 public class MarketController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_HISTORY_YEARS = 5;
+
     @Autowired
     private MarketDataService marketDataService;
 
     @Autowired
     private FavoriteService favoriteService;
 
-    @GetMapping("/instruments")
+    @Autowired
+    private QuoteStreamService quoteStreamService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private InstrumentUniverse instrumentUniverse;
+
+    @Autowired
+    private RefreshScheduler refreshScheduler;
+
+    @Autowired
+    private InstrumentJsonRenderer instrumentJsonRenderer;
+
+    @Autowired
+    private InstrumentSearchIndex searchIndex;
+
+    @Value("${app.market.cache.max-age-ms:60000}")
+    private long maxCacheAgeMs;
+
+    @GetMapping(value = "/instruments", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get all instruments", description = "Returns a list of all available instruments with their current prices and changes")
-    public ResponseEntity<List<InstrumentResponse>> getAllInstruments(
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = InstrumentResponse.class))))
+    public ResponseEntity<byte[]> getAllInstruments(
+            @AuthenticationPrincipal UserDetailsImpl userDetails, WebRequest request) {
+        QuoteSnapshot snapshot = marketDataService.getSnapshot();
+        LongIdSet favoriteIds = favoriteIds(userDetails);
+        RenderedInstruments rendered = instrumentJsonRenderer.render(snapshot);
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        // The list only changes with a new snapshot or a change to the user's favorites
+        String etag = "i" + snapshot.getVersion() + "-" + Long.toHexString(snapshot.getPublishedAt().toEpochMilli())
+                + "-" + Long.toHexString(favoriteIds.fingerprint()) + (gzip ? "-gz" : "");
+        CacheControl cacheControl = cacheControl(refreshScheduler.untilNextRefresh());
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rendered.toGzip(favoriteIds));
+        }
+        return response.body(rendered.toJson(favoriteIds));
+    }
+
+    @GetMapping("/instruments/changes")
+    @Operation(summary = "Get changed instruments", description = "Returns the instruments whose quotes changed after the given cursor, and the cursor to ask from next time. Falls back to every instrument when the cursor is too old or from before a restart or another instance")
+    public ResponseEntity<InstrumentChangesResponse> getChangedInstruments(
+            @Parameter(description = "cursor of the previous response (omit for everything)") @RequestParam(required = false) String since,
+            @AuthenticationPrincipal UserDetailsImpl userDetails, WebRequest request) {
+        ChangeCursor sinceCursor;
+        try {
+            sinceCursor = since != null ? ChangeCursor.decode(since) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+        QuoteChanges changes = marketDataService.getChangesSince(sinceCursor);
+        LongIdSet favoriteIds = favoriteIds(userDetails);
+
+        // Cursors carry their epoch, so the tag can't match a response from another boot or instance
+        String etag = "c" + (sinceCursor != null ? sinceCursor.encode() : "") + "-" + changes.cursor().encode() + "-"
+                + Long.toHexString(favoriteIds.fingerprint());
+
+        return conditional(request, etag, refreshScheduler.untilNextRefresh(), () -> InstrumentChangesResponse.builder()
+                .cursor(changes.cursor().encode())
+                .version(changes.cursor().version())
+                .full(changes.full())
+                .instruments(changes.instruments().stream()
+                        .map(instrument -> InstrumentResponse.fromInstrument(instrument,
+                                favoriteIds.contains(instrument.getId())))
+                        .collect(Collectors.toList()))
+                .build());
+    }
+
+    @GetMapping("/instruments/page")
+    @Operation(summary = "Get a page of instruments", description = "Returns instruments matching the filters in the requested order. Pass the returned nextCursor as cursor to get the following page")
+    public ResponseEntity<InstrumentPageResponse> getInstrumentPage(
+            @Parameter(description = "Instrument type") @RequestParam(required = false) InstrumentType type,
+            @Parameter(description = "Symbol or name prefix") @RequestParam(required = false) String prefix,
+            @Parameter(description = "Minimum daily change (%)") @RequestParam(required = false) BigDecimal minDailyChange,
+            @Parameter(description = "Maximum daily change (%)") @RequestParam(required = false) BigDecimal maxDailyChange,
+            @Parameter(description = "Minimum volume") @RequestParam(required = false) Long minVolume,
+            @Parameter(description = "Maximum volume") @RequestParam(required = false) Long maxVolume,
+            @Parameter(description = "Sort field") @RequestParam(defaultValue = "SYMBOL") SortField sort,
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "ASC") Direction direction,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (at most " + MAX_PAGE_SIZE + ")") @RequestParam(defaultValue = "50") int size,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        List<Instrument> instruments = marketDataService.getAllInstruments();
-
-        List<InstrumentResponse> response = instruments.stream()
-                .map(instrument -> {
-                    boolean isFavorite = false;
-                    if (userDetails != null) {
-                        isFavorite = favoriteService.isFavorite(userDetails.getId(), instrument.getId());
-                    }
-                    return InstrumentResponse.fromInstrument(instrument, isFavorite);
-                })
-                .collect(Collectors.toList());
+        InstrumentQuery query = new InstrumentQuery(type, prefix, minDailyChange, maxDailyChange, minVolume, maxVolume);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
 
-        return ResponseEntity.ok(response);
+        InstrumentPage page;
+        try {
+            page = marketDataService.getSnapshot().getIndex().page(query, sort, direction, cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+
+        LongIdSet favoriteIds = favoriteIds(userDetails);
+        return ResponseEntity.ok(InstrumentPageResponse.builder()
+                .version(page.version())
+                .instruments(page.instruments().stream()
+                        .map(instrument -> InstrumentResponse.fromInstrument(instrument,
+                                favoriteIds.contains(instrument.getId())))
+                        .collect(Collectors.toList()))
+                .nextCursor(page.nextCursor())
+                .build());
     }
 
     @GetMapping("/instruments/{symbol}")
     @Operation(summary = "Get instrument by symbol", description = "Returns detailed information about a specific instrument")
     public ResponseEntity<InstrumentResponse> getInstrumentBySymbol(
             @Parameter(description = "Instrument symbol", required = true) @PathVariable String symbol,
-            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+            @AuthenticationPrincipal UserDetailsImpl userDetails, WebRequest request) {
 
         Instrument instrument = marketDataService.getInstrumentBySymbol(symbol)
                 .orElseThrow(() -> new RuntimeException("Instrument not found with symbol: " + symbol));
 
-        boolean isFavorite = false;
-        if (userDetails != null) {
-            isFavorite = favoriteService.isFavorite(userDetails.getId(), instrument.getId());
+        boolean isFavorite = favoriteIds(userDetails).contains(instrument.getId());
+        // An instrument that has never been quoted has no lastUpdated yet
+        long lastUpdated = instrument.getLastUpdated() != null
+                ? instrument.getLastUpdated().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : 0;
+        String etag = instrument.getSymbol() + "-" + Long.toHexString(lastUpdated) + (isFavorite ? "-f" : "");
+
+        return conditional(request, etag, refreshScheduler.untilNextRefresh(symbol),
+                () -> InstrumentResponse.fromInstrument(instrument, isFavorite));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search instruments", description = "Returns instruments whose symbol, name or a word of the name starts with the query, symbol matches first and most favorited first")
+    public ResponseEntity<List<InstrumentResponse>> searchInstruments(
+            @Parameter(description = "Symbol or name prefix", required = true) @RequestParam String q,
+            @Parameter(description = "Maximum number of results (at most " + MAX_SEARCH_RESULTS + ")") @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        QuoteSnapshot snapshot = marketDataService.getSnapshot();
+        LongIdSet favoriteIds = favoriteIds(userDetails);
+
+        // Symbols that have no quote yet aren't returned
+        List<InstrumentResponse> response = searchIndex.search(q, maxResults).stream()
+                .map(symbol -> snapshot.findBySymbol(symbol.symbol()))
+                .flatMap(Optional::stream)
+                .map(instrument -> InstrumentResponse.fromInstrument(instrument,
+                        favoriteIds.contains(instrument.getId())))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/instruments/{symbol}/history")
+    @Operation(summary = "Get price history", description = "Returns OHLCV bars for an instrument between two dates (defaults to the last year, at most " + MAX_HISTORY_YEARS + " years), oldest first")
+    public ResponseEntity<List<PriceBarResponse>> getPriceHistory(
+            @Parameter(description = "Instrument symbol", required = true) @PathVariable String symbol,
+            @Parameter(description = "First bar date (inclusive; for weekly bars, the week it falls in)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last bar date (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Bar interval") @RequestParam(defaultValue = "DAILY") BarInterval interval) {
+
+        // Looked up in the snapshot directly: history views aren't quote reads and mustn't raise the refresh tier
+        marketDataService.getSnapshot().findBySymbol(symbol)
+                .orElseThrow(() -> new RuntimeException("Instrument not found with symbol: " + symbol));
+
+        // The range is capped so one request can't pull every bar; weekly bars are keyed by their Monday, so a
+        // mid-week start is moved back to include its week
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate earliest = end.minusYears(MAX_HISTORY_YEARS);
+        LocalDate requested = from != null ? from : end.minusYears(1);
+        LocalDate start = interval.bucketStart(requested.isBefore(earliest) ? earliest : requested);
+
+        List<PriceBarResponse> response = priceHistoryService.getHistory(symbol, interval, start, end).stream()
+                .map(PriceBarResponse::fromPriceBar)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream quote updates", description = "Server-Sent Events stream of instruments whose quotes changed, sent as 'quotes' events after each market data refresh")
+    public SseEmitter streamQuotes(
+            @Parameter(description = "Only send changes for the user's favorite instruments") @RequestParam(defaultValue = "false") boolean favoritesOnly,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return quoteStreamService.subscribe(userDetails != null ? userDetails.getId() : null, favoritesOnly);
+    }
+
+    @PostMapping("/universe/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload tracked instruments", description = "Re-reads the tracked instrument table and favorite counts, recomputing refresh tiers (admin only)")
+    public ResponseEntity<MessageResponse> reloadUniverse() {
+        int tracked = instrumentUniverse.reload();
+        return ResponseEntity.ok(new MessageResponse("Tracking " + tracked + " instruments"));
+    }
+
+    // Answers 304 when the client already has this version; the body is only built otherwise
+    private <T> ResponseEntity<T> conditional(WebRequest request, String etag, Duration untilNextRefresh,
+            Supplier<T> body) {
+        CacheControl cacheControl = cacheControl(untilNextRefresh);
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body.get());
+    }
+
+    // Quotes can't change before their next refresh, so clients may reuse them until then
+    private CacheControl cacheControl(Duration untilNextRefresh) {
+        return CacheControl.maxAge(Duration.ofMillis(Math.min(untilNextRefresh.toMillis(), maxCacheAgeMs)))
+                .cachePrivate();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
         }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 
-        return ResponseEntity.ok(InstrumentResponse.fromInstrument(instrument, isFavorite));
+    private LongIdSet favoriteIds(UserDetailsImpl userDetails) {
+        return userDetails != null ? favoriteService.getFavoriteInstrumentIds(userDetails.getId()) : LongIdSet.EMPTY;
     }
 }
\ No newline at end of file
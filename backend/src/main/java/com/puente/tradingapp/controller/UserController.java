@@ -21,6 +21,7 @@ import com.puente.tradingapp.payload.response.MessageResponse;
 import com.puente.tradingapp.payload.response.UserResponse;
 import com.puente.tradingapp.repository.RoleRepository;
 import com.puente.tradingapp.repository.UserRepository;
+import com.puente.tradingapp.security.jwt.TokenRevocationRegistry;
 import com.puente.tradingapp.security.service.UserDetailsImpl;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,6 +40,9 @@ public class UserController {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocations;
+
     @GetMapping("/me")
     @Operation(summary = "Get current user", description = "Get the current authenticated user's profile")
     public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal UserDetailsImpl userDetails) {
@@ -117,6 +121,7 @@ public class UserController {
                             roles.remove(adminRole);
                             user.setRoles(roles);
                             userRepository.save(user);
+                            tokenRevocations.revokeClaims(user.getId());
                             return ResponseEntity.ok(new MessageResponse("Admin role removed from user"));
                         } else {
                             return ResponseEntity.badRequest()
@@ -127,6 +132,7 @@ public class UserController {
                         roles.add(adminRole);
                         user.setRoles(roles);
                         userRepository.save(user);
+                        tokenRevocations.revokeClaims(user.getId());
                         return ResponseEntity.ok(new MessageResponse("Admin role added to user"));
                     }
                 })
@@ -0,0 +1,63 @@
+package com.puente.tradingapp.model;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "price_bars", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "symbol", "bar_interval", "bucket_start" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBar {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private BarInterval barInterval;
+
+    @Column(nullable = false)
+    private LocalDate bucketStart;
+
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+
+    @Column(nullable = false)
+    private BigDecimal close;
+
+    private Long volume;
+
+    public enum BarInterval {
+        DAILY,
+        WEEKLY;
+
+        // First day of the bar that covers this day: the day itself, or the Monday of its week
+        public LocalDate bucketStart(LocalDate day) {
+            return this == WEEKLY ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+        }
+    }
+}
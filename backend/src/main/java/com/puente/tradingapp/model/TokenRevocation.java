@@ -0,0 +1,27 @@
+package com.puente.tradingapp.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The last time a user's roles changed; tokens issued before it no longer carry trusted claims
+@Entity
+@Table(name = "token_revocations")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,58 @@
+package com.puente.tradingapp.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "tracked_instruments")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackedInstrument {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String symbol;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InstrumentType type;
+
+    // Identifier each provider knows the symbol by, when it isn't the symbol itself
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "tracked_instrument_provider_symbols", joinColumns = @JoinColumn(name = "tracked_instrument_id"))
+    @MapKeyColumn(name = "provider")
+    @Column(name = "provider_symbol", nullable = false)
+    @Builder.Default
+    private Map<String, String> providerSymbols = new HashMap<>();
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean enabled = true;
+}
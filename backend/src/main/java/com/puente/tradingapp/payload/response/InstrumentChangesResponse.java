@@ -0,0 +1,19 @@
+package com.puente.tradingapp.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InstrumentChangesResponse {
+    private String cursor;
+    private Long version;
+    private Boolean full;
+    private List<InstrumentResponse> instruments;
+}
@@ -0,0 +1,18 @@
+package com.puente.tradingapp.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InstrumentPageResponse {
+    private Long version;
+    private List<InstrumentResponse> instruments;
+    private String nextCursor;
+}
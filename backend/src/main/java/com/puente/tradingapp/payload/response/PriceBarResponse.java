@@ -0,0 +1,35 @@
+package com.puente.tradingapp.payload.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.puente.tradingapp.model.PriceBar;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceBarResponse {
+    private LocalDate date;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private Long volume;
+
+    public static PriceBarResponse fromPriceBar(PriceBar bar) {
+        return PriceBarResponse.builder()
+                .date(bar.getBucketStart())
+                .open(bar.getOpen())
+                .high(bar.getHigh())
+                .low(bar.getLow())
+                .close(bar.getClose())
+                .volume(bar.getVolume())
+                .build();
+    }
+}
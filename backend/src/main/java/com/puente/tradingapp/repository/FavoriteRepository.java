@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.puente.tradingapp.model.Favorite;
@@ -14,6 +16,12 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
 
     Optional<Favorite> findByUserIdAndInstrumentId(Long userId, Long instrumentId);
 
+    @Query("select f.instrument.id from Favorite f where f.user.id = :userId")
+    List<Long> findInstrumentIdsByUserId(@Param("userId") Long userId);
+
+    @Query("select f.instrument.symbol, count(f) from Favorite f group by f.instrument.symbol")
+    List<Object[]> countFavoritesBySymbol();
+
     boolean existsByUserIdAndInstrumentId(Long userId, Long instrumentId);
 
     void deleteByUserIdAndInstrumentId(Long userId, Long instrumentId);
@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import com.puente.tradingapp.model.Instrument;
 
 @Repository
-public interface InstrumentRepository extends JpaRepository<Instrument, Long> {
+public interface InstrumentRepository extends JpaRepository<Instrument, Long>, InstrumentRepositoryCustom {
     Optional<Instrument> findBySymbol(String symbol);
 
     boolean existsBySymbol(String symbol);
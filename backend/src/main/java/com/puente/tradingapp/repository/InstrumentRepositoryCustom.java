@@ -0,0 +1,11 @@
+package com.puente.tradingapp.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.puente.tradingapp.model.Instrument;
+
+public interface InstrumentRepositoryCustom {
+    // Inserts or updates the instruments by symbol and returns the rows as stored
+    List<Instrument> upsertAll(Collection<Instrument> instruments);
+}
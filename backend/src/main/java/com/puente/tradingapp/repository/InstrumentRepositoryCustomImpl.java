@@ -0,0 +1,103 @@
+package com.puente.tradingapp.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+
+public class InstrumentRepositoryCustomImpl implements InstrumentRepositoryCustom {
+
+    // Rows per statement, well under PostgreSQL's limit of 65535 bind parameters
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final int[] ROW_ARG_TYPES = { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC,
+            Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.BIGINT, Types.TIMESTAMP };
+
+    // Quote columns keep their last known value when an update doesn't carry them
+    private static final String UPSERT_SQL = """
+            INSERT INTO instruments (symbol, name, type, current_price, daily_change, weekly_change,
+                daily_high, daily_low, volume, last_updated)
+            VALUES %s
+            ON CONFLICT (symbol) DO UPDATE SET
+                name = EXCLUDED.name,
+                type = EXCLUDED.type,
+                current_price = COALESCE(EXCLUDED.current_price, instruments.current_price),
+                daily_change = COALESCE(EXCLUDED.daily_change, instruments.daily_change),
+                weekly_change = COALESCE(EXCLUDED.weekly_change, instruments.weekly_change),
+                daily_high = COALESCE(EXCLUDED.daily_high, instruments.daily_high),
+                daily_low = COALESCE(EXCLUDED.daily_low, instruments.daily_low),
+                volume = COALESCE(EXCLUDED.volume, instruments.volume),
+                last_updated = EXCLUDED.last_updated
+            RETURNING id, symbol, name, type, current_price, daily_change, weekly_change, daily_high, daily_low,
+                volume, last_updated
+            """;
+
+    private static final RowMapper<Instrument> STORED_ROW = (rs, rowNum) -> Instrument.builder()
+            .id(rs.getLong("id"))
+            .symbol(rs.getString("symbol"))
+            .name(rs.getString("name"))
+            .type(InstrumentType.valueOf(rs.getString("type")))
+            .currentPrice(rs.getBigDecimal("current_price"))
+            .dailyChange(rs.getBigDecimal("daily_change"))
+            .weeklyChange(rs.getBigDecimal("weekly_change"))
+            .dailyHigh(rs.getBigDecimal("daily_high"))
+            .dailyLow(rs.getBigDecimal("daily_low"))
+            .volume(rs.getObject("volume", Long.class))
+            .lastUpdated(rs.getTimestamp("last_updated").toLocalDateTime())
+            .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Instrument> upsertAll(Collection<Instrument> instruments) {
+        // A statement can't update the same row twice, so the last update per symbol wins
+        Map<String, Instrument> bySymbol = new LinkedHashMap<>();
+        for (Instrument instrument : instruments) {
+            bySymbol.put(instrument.getSymbol(), instrument);
+        }
+
+        List<Instrument> updates = new ArrayList<>(bySymbol.values());
+        List<Instrument> stored = new ArrayList<>(updates.size());
+        for (int from = 0; from < updates.size(); from += ROWS_PER_STATEMENT) {
+            stored.addAll(upsert(updates.subList(from, Math.min(from + ROWS_PER_STATEMENT, updates.size()))));
+        }
+        return stored;
+    }
+
+    // One multi-row statement, returning each row as stored after the merge
+    private List<Instrument> upsert(List<Instrument> instruments) {
+        Object[] args = new Object[instruments.size() * ROW_ARG_TYPES.length];
+        int[] argTypes = new int[args.length];
+        List<String> rows = new ArrayList<>(instruments.size());
+        int arg = 0;
+        for (Instrument instrument : instruments) {
+            System.arraycopy(ROW_ARG_TYPES, 0, argTypes, arg, ROW_ARG_TYPES.length);
+            args[arg++] = instrument.getSymbol();
+            args[arg++] = instrument.getName();
+            args[arg++] = instrument.getType().name();
+            args[arg++] = instrument.getCurrentPrice();
+            args[arg++] = instrument.getDailyChange();
+            args[arg++] = instrument.getWeeklyChange();
+            args[arg++] = instrument.getDailyHigh();
+            args[arg++] = instrument.getDailyLow();
+            args[arg++] = instrument.getVolume();
+            args[arg++] = Timestamp.valueOf(instrument.getLastUpdated());
+            rows.add("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+
+        return jdbcTemplate.query(UPSERT_SQL.formatted(String.join(", ", rows)), args, argTypes, STORED_ROW);
+    }
+}
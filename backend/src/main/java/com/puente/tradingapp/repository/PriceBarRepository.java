@@ -0,0 +1,20 @@
+package com.puente.tradingapp.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.puente.tradingapp.model.PriceBar;
+import com.puente.tradingapp.model.PriceBar.BarInterval;
+
+@Repository
+public interface PriceBarRepository extends JpaRepository<PriceBar, Long>, PriceBarRepositoryCustom {
+    List<PriceBar> findBySymbolAndBarIntervalAndBucketStartBetweenOrderByBucketStartAsc(String symbol,
+            BarInterval barInterval, LocalDate from, LocalDate to);
+
+    Optional<PriceBar> findFirstBySymbolAndBarIntervalAndBucketStartBeforeOrderByBucketStartDesc(String symbol,
+            BarInterval barInterval, LocalDate before);
+}
@@ -0,0 +1,9 @@
+package com.puente.tradingapp.repository;
+
+import java.util.Collection;
+
+import com.puente.tradingapp.model.PriceBar;
+
+public interface PriceBarRepositoryCustom {
+    int appendAll(Collection<PriceBar> bars);
+}
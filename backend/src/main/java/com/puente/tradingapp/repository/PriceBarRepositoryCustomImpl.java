@@ -0,0 +1,58 @@
+package com.puente.tradingapp.repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.puente.tradingapp.model.PriceBar;
+
+public class PriceBarRepositoryCustomImpl implements PriceBarRepositoryCustom {
+
+    // A bar still in progress is re-observed on every fetch: keep its first open and widen its range
+    private static final String APPEND_SQL = """
+            INSERT INTO price_bars (symbol, bar_interval, bucket_start, open, high, low, close, volume)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (symbol, bar_interval, bucket_start) DO UPDATE SET
+                open = COALESCE(price_bars.open, EXCLUDED.open),
+                high = GREATEST(price_bars.high, EXCLUDED.high),
+                low = LEAST(price_bars.low, EXCLUDED.low),
+                close = EXCLUDED.close,
+                volume = COALESCE(EXCLUDED.volume, price_bars.volume)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int appendAll(Collection<PriceBar> bars) {
+        if (bars.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> rows = new ArrayList<>(bars.size());
+        for (PriceBar bar : bars) {
+            rows.add(new Object[] {
+                    bar.getSymbol(),
+                    bar.getBarInterval().name(),
+                    Date.valueOf(bar.getBucketStart()),
+                    bar.getOpen(),
+                    bar.getHigh(),
+                    bar.getLow(),
+                    bar.getClose(),
+                    bar.getVolume()
+            });
+        }
+
+        int[] argTypes = { Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                Types.NUMERIC, Types.BIGINT };
+        jdbcTemplate.batchUpdate(APPEND_SQL, rows, argTypes);
+        return rows.size();
+    }
+}
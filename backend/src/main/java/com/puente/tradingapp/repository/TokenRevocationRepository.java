@@ -0,0 +1,23 @@
+package com.puente.tradingapp.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.puente.tradingapp.model.TokenRevocation;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findByRevokedAtAfter(Instant since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TokenRevocation r where r.revokedAt < :before")
+    int deleteRevokedBefore(@Param("before") Instant before);
+}
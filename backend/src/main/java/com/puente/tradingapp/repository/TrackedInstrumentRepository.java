@@ -0,0 +1,17 @@
+package com.puente.tradingapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.puente.tradingapp.model.TrackedInstrument;
+
+@Repository
+public interface TrackedInstrumentRepository extends JpaRepository<TrackedInstrument, Long> {
+    @EntityGraph(attributePaths = "providerSymbols")
+    List<TrackedInstrument> findByEnabledTrueOrderByIdAsc();
+
+    boolean existsBySymbol(String symbol);
+}
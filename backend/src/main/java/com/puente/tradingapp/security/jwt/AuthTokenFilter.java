@@ -13,8 +13,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.puente.tradingapp.security.service.UserDetailsImpl;
 import com.puente.tradingapp.security.service.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +30,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocations;
+
+    @Value("${app.jwt.stateless:true}")
+    private boolean stateless;
+
     @Value("${app.jwt.header:Authorization}")
     private String headerName;
 
@@ -40,10 +49,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Claims claims = jwt != null ? jwtUtils.parseValidClaims(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = stateless ? principalFromClaims(claims) : null;
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                }
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -59,6 +71,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Trusts the embedded principal unless the token predates a change to the user's roles
+    private UserDetails principalFromClaims(Claims claims) {
+        UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+        if (userDetails == null || tokenRevocations.areClaimsRevoked(userDetails.getId(), claims.getIssuedAt())) {
+            return null;
+        }
+        return userDetails;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader(headerName);
 
@@ -2,62 +2,148 @@ package com.puente.tradingapp.security.jwt;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import com.puente.tradingapp.security.service.UserDetailsImpl;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String FIRST_NAME_CLAIM = "firstName";
+    private static final String LAST_NAME_CLAIM = "lastName";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
+    @Value("${app.jwt.key-id:default}")
+    private String jwtKeyId;
+
+    // Verification-only keys as "kid:secret" pairs, kept while tokens signed with them are still live
+    @Value("${app.jwt.previous-keys:}")
+    private String previousKeys;
+
     @Value("${app.jwt.expiration}")
     private int jwtExpirationMs;
 
+    // Built once at startup: the signing key, every key that may verify a token, and a thread-safe parser
+    private Key signingKey;
+    private Map<String, Key> keyRing;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void initKeys() {
+        Map<String, Key> keys = new HashMap<>();
+        if (StringUtils.hasText(previousKeys)) {
+            for (String entry : previousKeys.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2 || !StringUtils.hasText(parts[0])) {
+                    throw new IllegalStateException("Invalid app.jwt.previous-keys entry, expected kid:secret");
+                }
+                keys.put(parts[0], hmacKey(parts[1]));
+            }
+        }
+
+        // Keys.hmacShaKeyFor rejects secrets shorter than 256 bits, so a weak key fails startup rather than a request
+        signingKey = hmacKey(jwtSecret);
+        keys.put(jwtKeyId, signingKey);
+        keyRing = Collections.unmodifiableMap(keys);
+
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+
+        logger.info("JWT key ring initialized with {} key(s), signing with key id '{}'", keyRing.size(), jwtKeyId);
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyId)
                 .setSubject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(FIRST_NAME_CLAIM, userPrincipal.getFirstName())
+                .claim(LAST_NAME_CLAIM, userPrincipal.getLastName())
+                .claim(ROLES_CLAIM, roles)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private static Key hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Tokens issued before key ids were introduced carry no kid and are verified with the signing key
+    private Key resolveKey(String keyId) {
+        if (keyId == null) {
+            return signingKey;
+        }
+
+        Key key = keyRing.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + keyId);
+        }
+        return key;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
+        return jwtParser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseValidClaims(authToken) != null;
+    }
+
+    // Validates the token and returns its claims in a single parse, or null if the token is invalid
+    public Claims parseValidClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -70,6 +156,28 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    // Rebuilds the principal from token claims; returns null for tokens issued without them
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Collection<?> roles = claims.get(ROLES_CLAIM, Collection.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+
+        return UserDetailsImpl.builder()
+                .id(userId.longValue())
+                .username(claims.getSubject())
+                .email(claims.get(EMAIL_CLAIM, String.class))
+                .firstName(claims.get(FIRST_NAME_CLAIM, String.class))
+                .lastName(claims.get(LAST_NAME_CLAIM, String.class))
+                .authorities(authorities)
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.puente.tradingapp.security.jwt;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.model.TokenRevocation;
+import com.puente.tradingapp.repository.TokenRevocationRepository;
+
+/**
+ * Remembers when a user's authorities last changed. Tokens issued before that
+ * moment still authenticate, but their embedded claims are no longer trusted
+ * and the principal is reloaded from the database instead.
+ *
+ * <p>Revocations are stored in the {@code token_revocations} table and every
+ * instance polls it, so a role change made on one instance (or directly in
+ * the database) applies everywhere within
+ * {@code app.jwt.revocation-poll-ms}. Checks read an in-memory copy and
+ * never touch the database.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    @Autowired
+    private TokenRevocationRepository revocationRepository;
+
+    @Value("${app.jwt.expiration}")
+    private long jwtExpirationMs;
+
+    private final Map<Long, Long> revokedAt = new ConcurrentHashMap<>();
+
+    public void revokeClaims(Long userId) {
+        long now = System.currentTimeMillis();
+        revocationRepository.save(new TokenRevocation(userId, Instant.ofEpochMilli(now)));
+        revokedAt.merge(userId, now, Math::max);
+    }
+
+    // Picks up revocations made by other instances and forgets the ones every affected token has outlived
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-poll-ms:5000}")
+    public void syncRevocations() {
+        try {
+            Instant expiredBefore = Instant.now().minusMillis(jwtExpirationMs);
+            for (TokenRevocation revocation : revocationRepository.findByRevokedAtAfter(expiredBefore)) {
+                revokedAt.merge(revocation.getUserId(), revocation.getRevokedAt().toEpochMilli(), Math::max);
+            }
+            revocationRepository.deleteRevokedBefore(expiredBefore);
+        } catch (Exception e) {
+            logger.error("Error loading token revocations: {}", e.getMessage());
+        }
+    }
+
+    public boolean areClaimsRevoked(Long userId, Date issuedAt) {
+        Long revokedAtMs = revokedAt.get(userId);
+        if (revokedAtMs == null) {
+            return false;
+        }
+
+        // Every token issued before the revocation has expired by now
+        if (System.currentTimeMillis() - revokedAtMs > jwtExpirationMs) {
+            revokedAt.remove(userId, revokedAtMs);
+            return false;
+        }
+
+        // iat has second precision, so a token from the same second is treated as revoked too
+        return issuedAt == null || issuedAt.getTime() <= revokedAtMs;
+    }
+}
@@ -3,6 +3,7 @@ package com.puente.tradingapp.service;
 import java.util.List;
 
 import com.puente.tradingapp.model.Favorite;
+import com.puente.tradingapp.util.LongIdSet;
 
 public interface FavoriteService {
     List<Favorite> getUserFavorites(Long userId);
@@ -12,4 +13,6 @@ public interface FavoriteService {
     void removeFavorite(Long userId, Long instrumentId);
 
     boolean isFavorite(Long userId, Long instrumentId);
+
+    LongIdSet getFavoriteInstrumentIds(Long userId);
 }
\ No newline at end of file
@@ -4,10 +4,17 @@ import java.util.List;
 import java.util.Optional;
 
 import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.service.snapshot.ChangeCursor;
+import com.puente.tradingapp.service.snapshot.QuoteChanges;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshot;
 
 public interface MarketDataService {
     List<Instrument> getAllInstruments();
 
+    QuoteSnapshot getSnapshot();
+
+    QuoteChanges getChangesSince(ChangeCursor since);
+
     Optional<Instrument> getInstrumentBySymbol(String symbol);
 
     void refreshMarketData();
@@ -0,0 +1,11 @@
+package com.puente.tradingapp.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.puente.tradingapp.model.PriceBar;
+import com.puente.tradingapp.model.PriceBar.BarInterval;
+
+public interface PriceHistoryService {
+    List<PriceBar> getHistory(String symbol, BarInterval interval, LocalDate from, LocalDate to);
+}
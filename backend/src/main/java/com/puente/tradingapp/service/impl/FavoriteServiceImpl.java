@@ -2,10 +2,20 @@ package com.puente.tradingapp.service.impl;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.puente.tradingapp.model.Favorite;
 import com.puente.tradingapp.model.Instrument;
@@ -14,12 +24,15 @@ import com.puente.tradingapp.repository.FavoriteRepository;
 import com.puente.tradingapp.repository.InstrumentRepository;
 import com.puente.tradingapp.repository.UserRepository;
 import com.puente.tradingapp.service.FavoriteService;
+import com.puente.tradingapp.util.LongIdSet;
 
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
 public class FavoriteServiceImpl implements FavoriteService {
 
+    private static final int GENERATION_STRIPES = 1024;
+
     @Autowired
     private FavoriteRepository favoriteRepository;
 
@@ -29,6 +42,25 @@ public class FavoriteServiceImpl implements FavoriteService {
     @Autowired
     private InstrumentRepository instrumentRepository;
 
+    @Value("${app.favorites.cache-size:10000}")
+    private int favoriteIdsCacheSize;
+
+    // Bounds how long another instance's change to a user's favorites can go unseen here
+    @Value("${app.favorites.cache-ttl-ms:300000}")
+    private long favoriteIdsCacheTtlMs;
+
+    private final Map<Long, CachedIds> favoriteIdsByUser = new ConcurrentHashMap<>();
+
+    // Cached sets in the order they were loaded, so the oldest is evicted first once the cache is full
+    private final Queue<CachedIds> loadOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger loadOrderSize = new AtomicInteger();
+
+    // Bumped on every change to a user's favorites; a load that raced with a change isn't cached
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private record CachedIds(Long userId, LongIdSet ids, long expiresAtNanos) {
+    }
+
     @Override
     public List<Favorite> getUserFavorites(Long userId) {
         return favoriteRepository.findAllByUserId(userId);
@@ -54,6 +86,7 @@ public class FavoriteServiceImpl implements FavoriteService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
+        evictFavoriteIds(userId);
         return favoriteRepository.save(favorite);
     }
 
@@ -64,6 +97,7 @@ public class FavoriteServiceImpl implements FavoriteService {
             throw new EntityNotFoundException(
                     "Favorite not found for user id: " + userId + " and instrument id: " + instrumentId);
         }
+        evictFavoriteIds(userId);
         favoriteRepository.deleteByUserIdAndInstrumentId(userId, instrumentId);
     }
 
@@ -71,4 +105,62 @@ public class FavoriteServiceImpl implements FavoriteService {
     public boolean isFavorite(Long userId, Long instrumentId) {
         return favoriteRepository.existsByUserIdAndInstrumentId(userId, instrumentId);
     }
-}
\ No newline at end of file
+
+    @Override
+    public LongIdSet getFavoriteInstrumentIds(Long userId) {
+        CachedIds cached = favoriteIdsByUser.get(userId);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return cached.ids();
+        }
+
+        long generation = generations.get(stripe(userId));
+        LongIdSet ids = LongIdSet.of(favoriteRepository.findInstrumentIdsByUserId(userId));
+        CachedIds loaded = new CachedIds(userId, ids,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(favoriteIdsCacheTtlMs));
+
+        // Checked under the entry's lock, which an eviction also takes, so a stale set can't land after one
+        CachedIds stored = favoriteIdsByUser.compute(userId,
+                (id, current) -> generations.get(stripe(userId)) == generation ? loaded : current);
+        if (stored == loaded) {
+            loadOrder.add(loaded);
+            loadOrderSize.incrementAndGet();
+            evictOldest();
+        }
+        return ids;
+    }
+
+    // Drops the oldest loads until the cache is back within its size
+    private void evictOldest() {
+        while (loadOrderSize.get() > favoriteIdsCacheSize) {
+            CachedIds oldest = loadOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            loadOrderSize.decrementAndGet();
+            // A user reloaded since keeps the newer entry
+            favoriteIdsByUser.remove(oldest.userId(), oldest);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(userId.hashCode(), GENERATION_STRIPES);
+    }
+
+    // Evicts now and again after commit, so a read that loaded the pre-change set before the commit can't cache it
+    private void evictFavoriteIds(Long userId) {
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        favoriteIdsByUser.remove(userId);
+    }
+}
@@ -1,134 +1,174 @@
 package com.puente.tradingapp.service.impl;
 
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ParseException;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.puente.tradingapp.model.Instrument;
 import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.model.PriceBar;
 import com.puente.tradingapp.repository.InstrumentRepository;
+import com.puente.tradingapp.repository.PriceBarRepository;
 import com.puente.tradingapp.service.MarketDataService;
+import com.puente.tradingapp.service.provider.BatchMarketDataProvider;
+import com.puente.tradingapp.service.provider.MarketDataProvider;
+import com.puente.tradingapp.service.provider.MarketDataRouter;
+import com.puente.tradingapp.service.provider.ProviderQuote;
+import com.puente.tradingapp.service.provider.TrackedSymbol;
+import com.puente.tradingapp.service.schedule.RefreshScheduler;
+import com.puente.tradingapp.service.snapshot.ChangeCursor;
+import com.puente.tradingapp.service.snapshot.QuoteChangeLog;
+import com.puente.tradingapp.service.snapshot.QuoteChanges;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshot;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshotCache;
+import com.puente.tradingapp.service.universe.InstrumentUniverse;
+import com.puente.tradingapp.util.ThreadFactories;
+
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class MarketDataServiceImpl implements MarketDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(MarketDataServiceImpl.class);
-    private static final List<String> STOCK_SYMBOLS = Arrays.asList("AAPL", "MSFT", "GOOGL", "AMZN", "TSLA", "META",
-            "NVDA", "JPM", "V", "WMT");
-    private static final List<String> CRYPTO_SYMBOLS = Arrays.asList("bitcoin", "ethereum", "binancecoin", "ripple",
-            "cardano", "solana", "dogecoin",
-            "polkadot", "avalanche-2", "matic-network");
-    private static final List<String> CRYPTO_SYMBOL_MAPPING = Arrays.asList("BTC", "ETH", "BNB", "XRP", "ADA", "SOL",
-            "DOGE",
-            "DOT", "AVAX", "MATIC");
 
     @Autowired
     private InstrumentRepository instrumentRepository;
 
-    @Value("${app.market.alphavantage.api-key}")
-    private String apiKey;
+    @Autowired
+    private PriceBarRepository priceBarRepository;
+
+    @Autowired
+    private MarketDataRouter router;
+
+    @Autowired
+    private QuoteSnapshotCache snapshotCache;
+
+    @Autowired
+    private QuoteChangeLog changeLog;
+
+    @Autowired
+    private InstrumentUniverse universe;
 
-    @Value("${app.market.rate-limit-ms}")
-    private long rateLimitMs;
+    @Autowired
+    private RefreshScheduler refreshScheduler;
+
+    @Value("${app.market.ingestion.threads:2}")
+    private int ingestionThreads;
+
+    @Value("${app.market.scheduler.enabled:true}")
+    private boolean schedulerEnabled;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Write-behind buffer of fetched quotes, keyed by symbol, flushed every app.market.flush-interval-ms
+    private final Map<String, Instrument> pendingUpdates = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PriceBar> pendingBars = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // One worker lane per provider, so waiting on one provider's rate limit never stalls another
+    private final Map<String, ExecutorService> providerExecutors = new ConcurrentHashMap<>();
+
+    private final ExecutorService dispatcher = Executors
+            .newSingleThreadExecutor(new CustomizableThreadFactory("market-data-scheduler-"));
+
+    // The stored quotes are served straight away, and the scheduler only refetches the ones that are stale. Both
+    // start on the dispatcher, so the application reports ready without waiting on the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void startScheduler() {
+        dispatcher.execute(() -> {
+            try {
+                QuoteSnapshot snapshot = getSnapshot();
+                logger.info("Serving {} stored instruments from snapshot v{}", snapshot.size(),
+                        snapshot.getVersion());
+            } catch (Exception e) {
+                // The first read retries the load
+                logger.error("Error loading stored instruments: {}", e.getMessage());
+            }
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final CloseableHttpClient httpClient = HttpClients.createDefault();
+            if (!schedulerEnabled) {
+                logger.info("Market data scheduler is disabled");
+                return;
+            }
+            dispatchDueRefreshes();
+        });
+    }
 
-    // Track API call counts to handle rate limiting
-    private AtomicInteger alphaVantageCallsInLastMinute = new AtomicInteger(0);
-    private LocalDateTime lastResetTime = LocalDateTime.now();
+    @PreDestroy
+    public void stopIngestionExecutors() {
+        dispatcher.shutdownNow();
+        providerExecutors.values().forEach(ExecutorService::shutdownNow);
+    }
 
     @Override
     public List<Instrument> getAllInstruments() {
-        return instrumentRepository.findAll();
+        return getSnapshot().toInstruments();
+    }
+
+    @Override
+    public QuoteSnapshot getSnapshot() {
+        return snapshotCache.get(instrumentRepository::findAll);
+    }
+
+    // Cursors the change log can't serve get the whole snapshot instead
+    @Override
+    public QuoteChanges getChangesSince(ChangeCursor since) {
+        Optional<QuoteChanges> changes = since != null ? changeLog.changesSince(since) : Optional.empty();
+        return changes.orElseGet(() -> QuoteChanges.full(getSnapshot()));
     }
 
     @Override
     public Optional<Instrument> getInstrumentBySymbol(String symbol) {
-        return instrumentRepository.findBySymbol(symbol);
+        refreshScheduler.recordRead(symbol);
+        return getSnapshot().findBySymbol(symbol);
     }
 
+    // Refreshes every tracked symbol now, regardless of when it is next due
     @Override
-    @Scheduled(fixedRateString = "${app.market.refresh-interval-ms}", initialDelay = 1000)
     public void refreshMarketData() {
         logger.info("Starting market data refresh at {}", LocalDateTime.now());
 
-        // Reset API call counter if a minute has passed
-        if (LocalDateTime.now().isAfter(lastResetTime.plusMinutes(1))) {
-            logger.info("Resetting API call counter. Previous count: {}", alphaVantageCallsInLastMinute.get());
-            alphaVantageCallsInLastMinute.set(0);
-            lastResetTime = LocalDateTime.now();
-        }
-
         try {
-            // Fetch stock data from Alpha Vantage
-            logger.info("Fetching stock data for {} symbols", STOCK_SYMBOLS.size());
-            int successfulStockFetches = 0;
-            for (String symbol : STOCK_SYMBOLS) {
-                try {
-                    // Check if we're approaching API limit
-                    if (alphaVantageCallsInLastMinute.get() >= 5) {
-                        logger.warn("Alpha Vantage API call limit reached ({}). Pausing stock data fetching.",
-                                alphaVantageCallsInLastMinute.get());
-                        break;
-                    }
-
-                    boolean success = fetchStockData(symbol);
-                    if (success) {
-                        successfulStockFetches++;
-                    }
-
-                    // Rate limiting to avoid API restrictions
-                    TimeUnit.MILLISECONDS.sleep(rateLimitMs);
-                } catch (Exception e) {
-                    logger.error("Error fetching data for stock {}: {}", symbol, e.getMessage());
-                }
+            List<TrackedSymbol> symbols = universe.getSymbols();
+            Map<InstrumentType, AtomicInteger> fetched = new EnumMap<>(InstrumentType.class);
+            for (InstrumentType type : InstrumentType.values()) {
+                fetched.put(type, new AtomicInteger());
             }
-            logger.info("Successfully fetched data for {}/{} stocks", successfulStockFetches, STOCK_SYMBOLS.size());
-
-            // Fetch crypto data from CoinGecko
-            logger.info("Fetching crypto data for {} symbols", CRYPTO_SYMBOLS.size());
-            int successfulCryptoFetches = 0;
-            for (int i = 0; i < CRYPTO_SYMBOLS.size(); i++) {
-                try {
-                    String coinGeckoId = CRYPTO_SYMBOLS.get(i);
-                    String symbol = CRYPTO_SYMBOL_MAPPING.get(i);
-
-                    boolean success = fetchCryptoDataFromCoinGecko(coinGeckoId, symbol);
-                    if (success) {
-                        successfulCryptoFetches++;
-                    }
 
-                    // Rate limiting for CoinGecko (more generous than Alpha Vantage)
-                    TimeUnit.MILLISECONDS.sleep(1500);
-                } catch (Exception e) {
-                    logger.error("Error fetching data for crypto {}: {}", CRYPTO_SYMBOLS.get(i), e.getMessage());
+            refresh(symbols, (symbol, updated) -> {
+                if (updated) {
+                    fetched.get(symbol.type()).incrementAndGet();
                 }
-            }
-            logger.info("Successfully fetched data for {}/{} cryptocurrencies", successfulCryptoFetches,
-                    CRYPTO_SYMBOLS.size());
+            }).join();
+            flushPendingUpdates();
+
+            fetched.forEach((type, count) -> logger.info("Successfully fetched data for {}/{} {} instruments",
+                    count.get(), symbols.stream().filter(symbol -> symbol.type() == type).count(), type));
 
             logger.info("Market data refresh completed at {}", LocalDateTime.now());
         } catch (Exception e) {
@@ -136,416 +176,233 @@ public class MarketDataServiceImpl implements MarketDataService {
         }
     }
 
-    private boolean fetchStockData(String symbol) throws IOException, InterruptedException, ParseException {
-        logger.debug("Fetching stock data for {}", symbol);
-        String url = "https://www.alphavantage.co/query?function=GLOBAL_QUOTE&symbol=" + symbol + "&apikey=" + apiKey;
-
-        // Increment API call counter
-        alphaVantageCallsInLastMinute.incrementAndGet();
-
-        HttpGet request = new HttpGet(url);
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String jsonResponse = EntityUtils.toString(response.getEntity());
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            // Check for API limit message
-            if (root.has("Note") && root.get("Note").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Note").asText());
-                return false;
-            }
-
-            if (root.has("Information") && root.get("Information").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Information").asText());
-                return false;
-            }
-
-            if (root.has("Global Quote") && !root.get("Global Quote").isEmpty()
-                    && root.get("Global Quote").size() > 0) {
-                JsonNode quote = root.get("Global Quote");
-
-                BigDecimal currentPrice = new BigDecimal(quote.get("05. price").asText());
-                BigDecimal previousClose = new BigDecimal(quote.get("08. previous close").asText());
-                BigDecimal dailyChange = currentPrice.subtract(previousClose)
-                        .divide(previousClose, 4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100));
-
-                BigDecimal dailyHigh = new BigDecimal(quote.get("03. high").asText());
-                BigDecimal dailyLow = new BigDecimal(quote.get("04. low").asText());
-                Long volume = Long.parseLong(quote.get("06. volume").asText());
-
-                // Get or create instrument
-                Instrument instrument = instrumentRepository.findBySymbol(symbol)
-                        .orElse(Instrument.builder()
-                                .symbol(symbol)
-                                .name(getStockName(symbol))
-                                .type(InstrumentType.STOCK)
-                                .build());
-
-                // Update instrument data
-                instrument.setCurrentPrice(currentPrice);
-                instrument.setDailyChange(dailyChange);
-                instrument.setDailyHigh(dailyHigh);
-                instrument.setDailyLow(dailyLow);
-                instrument.setVolume(volume);
-                instrument.setLastUpdated(LocalDateTime.now());
-
-                // Get weekly change data
-                fetchWeeklyChange(instrument);
-
-                instrumentRepository.save(instrument);
-                logger.info("Updated stock data for {}: price=${}, change={}%", symbol, currentPrice, dailyChange);
-                return true;
-            } else {
-                logger.warn("No data found for stock: {}. Response: {}", symbol,
-                        jsonResponse.length() > 100 ? jsonResponse.substring(0, 100) + "..." : jsonResponse);
-                return false;
+    // Hands symbols to the provider lanes as they come due; each one is rescheduled once its fetch is done
+    private void dispatchDueRefreshes() {
+        logger.info("Market data scheduler started");
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<TrackedSymbol> due = refreshScheduler.takeDue(Duration.ofSeconds(1));
+                if (!due.isEmpty()) {
+                    logger.debug("Dispatching refreshes for {} symbols", due.size());
+                    refresh(due, (symbol, updated) -> refreshScheduler.reschedule(symbol));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Error dispatching market data refreshes: {}", e.getMessage());
             }
         }
     }
 
-    private boolean fetchCryptoDataFromCoinGecko(String coinId, String symbol)
-            throws IOException, InterruptedException {
-        logger.debug("Fetching crypto data for {} ({})", symbol, coinId);
-        String url = "https://api.coingecko.com/api/v3/coins/" + coinId
-                + "?localization=false&tickers=false&market_data=true&community_data=false&developer_data=false";
-
-        HttpGet request = new HttpGet(url);
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            int statusCode = response.getCode();
-
-            if (statusCode == 429) {
-                logger.warn("CoinGecko API rate limit reached for {}", symbol);
-                return false;
-            }
-
-            if (statusCode != 200) {
-                logger.warn("CoinGecko API returned status code {} for {}", statusCode, symbol);
-                return false;
-            }
-
-            String jsonResponse = EntityUtils.toString(response.getEntity());
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            if (root.has("market_data")) {
-                JsonNode marketData = root.get("market_data");
-
-                BigDecimal currentPrice = new BigDecimal(marketData.get("current_price").get("usd").asText());
-                BigDecimal dailyChange = new BigDecimal(marketData.get("price_change_percentage_24h").asText());
-                BigDecimal weeklyChange = new BigDecimal(marketData.get("price_change_percentage_7d").asText());
-                BigDecimal dailyHigh = new BigDecimal(marketData.get("high_24h").get("usd").asText());
-                BigDecimal dailyLow = new BigDecimal(marketData.get("low_24h").get("usd").asText());
-                Long volume = marketData.get("total_volume").get("usd").asLong();
-
-                // Get or create instrument
-                Instrument instrument = instrumentRepository.findBySymbol(symbol)
-                        .orElse(Instrument.builder()
-                                .symbol(symbol)
-                                .name(getCryptoName(symbol))
-                                .type(InstrumentType.CRYPTO)
-                                .build());
-
-                // Update instrument data
-                instrument.setCurrentPrice(currentPrice);
-                instrument.setDailyChange(dailyChange);
-                instrument.setWeeklyChange(weeklyChange);
-                instrument.setDailyHigh(dailyHigh);
-                instrument.setDailyLow(dailyLow);
-                instrument.setVolume(volume);
-                instrument.setLastUpdated(LocalDateTime.now());
-
-                instrumentRepository.save(instrument);
-                logger.info("Updated crypto data for {}: price=${}, 24h change={}%, 7d change={}%",
-                        symbol, currentPrice, dailyChange, weeklyChange);
-                return true;
+    /**
+     * Symbols whose primary provider can batch are fetched in bulk first; the
+     * rest, and anything missing from a batch, go through the router one at a
+     * time. Every provider drains on its own lane at its own rate limit.
+     * {@code onDone} is called once per symbol with whether it was updated.
+     */
+    private CompletableFuture<Void> refresh(List<TrackedSymbol> symbols, BiConsumer<TrackedSymbol, Boolean> onDone) {
+        Map<BatchMarketDataProvider, List<TrackedSymbol>> batched = new LinkedHashMap<>();
+        List<TrackedSymbol> singles = new ArrayList<>();
+        for (TrackedSymbol symbol : symbols) {
+            Optional<BatchMarketDataProvider> primary = router.primaryFor(symbol).flatMap(BatchMarketDataProvider::of);
+            if (primary.isPresent()) {
+                batched.computeIfAbsent(primary.get(), p -> new ArrayList<>()).add(symbol);
             } else {
-                logger.warn("No market data found for crypto: {}. Response: {}", symbol,
-                        jsonResponse.length() > 100 ? jsonResponse.substring(0, 100) + "..." : jsonResponse);
-                return false;
+                singles.add(symbol);
             }
-        } catch (Exception e) {
-            logger.error("Error fetching CoinGecko data for {} ({}): {}", symbol, coinId, e.getMessage());
-            return false;
         }
-    }
-
-    private void fetchWeeklyChange(Instrument instrument) throws IOException, InterruptedException, ParseException {
-        logger.debug("Fetching weekly change for {}", instrument.getSymbol());
-        String url = "https://www.alphavantage.co/query?function=TIME_SERIES_WEEKLY&symbol=" + instrument.getSymbol()
-                + "&apikey=" + apiKey;
-
-        // Increment API call counter
-        alphaVantageCallsInLastMinute.incrementAndGet();
-
-        HttpGet request = new HttpGet(url);
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String jsonResponse = EntityUtils.toString(response.getEntity());
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            // Check for API limit message
-            if (root.has("Note") && root.get("Note").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Note").asText());
-                return;
-            }
 
-            if (root.has("Information") && root.get("Information").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Information").asText());
+        List<CompletableFuture<Void>> fetches = new ArrayList<>();
+        fetches.add(fetchAll(singles, onDone));
+        batched.forEach((provider, batch) -> {
+            // However the chain fails, every symbol it didn't get to is still reported, and none twice
+            Set<TrackedSymbol> done = ConcurrentHashMap.newKeySet();
+            BiConsumer<TrackedSymbol, Boolean> onDoneOnce = (symbol, updated) -> {
+                if (done.add(symbol)) {
+                    onDone.accept(symbol, updated);
+                }
+            };
+            CompletableFuture<List<TrackedSymbol>> batchFetch;
+            try {
+                batchFetch = CompletableFuture.supplyAsync(() -> fetchBatch(provider, batch, onDoneOnce),
+                        executorFor(provider.getName()));
+            } catch (RejectedExecutionException e) {
+                // The lanes are shutting down
+                batch.forEach(symbol -> onDoneOnce.accept(symbol, false));
                 return;
             }
+            fetches.add(batchFetch
+                    .thenCompose(missing -> {
+                        if (!missing.isEmpty()) {
+                            logger.info("Falling back to single requests for {} {} symbols", missing.size(),
+                                    provider.getName());
+                        }
+                        return fetchAll(missing, onDoneOnce);
+                    })
+                    .handle((ignored, failure) -> {
+                        if (failure != null) {
+                            logger.error("Error fetching {} batch: {}", provider.getName(), failure.getMessage());
+                            batch.forEach(symbol -> onDoneOnce.accept(symbol, false));
+                        }
+                        return null;
+                    }));
+        });
 
-            if (root.has("Weekly Time Series") && !root.get("Weekly Time Series").isEmpty()) {
-                JsonNode timeSeries = root.get("Weekly Time Series");
-                if (timeSeries.isEmpty()) {
-                    logger.warn("Weekly Time Series is empty for {}", instrument.getSymbol());
-                    return;
-                }
-
-                // Get the two most recent weeks (keys are dates)
-                String[] weeks = new String[2];
-                int i = 0;
-
-                // Safely iterate through the time series to get the date keys
-                for (JsonNode week : timeSeries) {
-                    if (i >= 2)
-                        break;
-                    weeks[i++] = week.asText();
-                }
-
-                // An alternative approach if the above doesn't work
-                if (weeks[0] == null || weeks[1] == null) {
-                    i = 0;
-                    Iterator<String> fieldNames = timeSeries.fieldNames();
-                    while (fieldNames.hasNext() && i < 2) {
-                        weeks[i++] = fieldNames.next();
-                    }
-                }
-
-                if (weeks[0] != null && weeks[1] != null) {
-                    try {
-                        JsonNode currentWeekNode = timeSeries.get(weeks[0]);
-                        JsonNode previousWeekNode = timeSeries.get(weeks[1]);
-
-                        if (currentWeekNode != null && previousWeekNode != null &&
-                                currentWeekNode.has("4. close") && previousWeekNode.has("4. close")) {
-
-                            BigDecimal currentWeekClose = new BigDecimal(currentWeekNode.get("4. close").asText());
-                            BigDecimal previousWeekClose = new BigDecimal(previousWeekNode.get("4. close").asText());
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]));
+    }
 
-                            BigDecimal weeklyChange = currentWeekClose.subtract(previousWeekClose)
-                                    .divide(previousWeekClose, 4, RoundingMode.HALF_UP)
-                                    .multiply(BigDecimal.valueOf(100));
+    private void stageQuote(TrackedSymbol symbol, ProviderQuote quote) {
+        Instrument instrument = Instrument.builder()
+                .symbol(symbol.symbol())
+                .name(symbol.name())
+                .type(symbol.type())
+                .currentPrice(quote.getCurrentPrice())
+                .dailyChange(quote.getDailyChange())
+                .weeklyChange(quote.getWeeklyChange())
+                .dailyHigh(quote.getDailyHigh())
+                .dailyLow(quote.getDailyLow())
+                .volume(quote.getVolume())
+                .lastUpdated(LocalDateTime.now())
+                .build();
+
+        pendingUpdates.put(instrument.getSymbol(), instrument);
+        pendingBars.addAll(quote.getBars());
+        refreshScheduler.recordQuote(symbol.symbol(), quote.getCurrentPrice());
+        logger.info("Updated {} data for {} from {}: price=${}, change={}%, weekly change={}%", symbol.type(),
+                symbol.symbol(), quote.getProvider(), quote.getCurrentPrice(), quote.getDailyChange(),
+                quote.getWeeklyChange());
+    }
 
-                            instrument.setWeeklyChange(weeklyChange);
-                            logger.debug("Updated weekly change for {}: {}%", instrument.getSymbol(), weeklyChange);
-                        } else {
-                            logger.warn("Missing close data for {} in weekly time series", instrument.getSymbol());
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error processing weekly data for {}: {}", instrument.getSymbol(), e.getMessage());
-                    }
-                } else {
-                    logger.warn("Insufficient weekly data points for {}", instrument.getSymbol());
-                }
-            } else {
-                logger.warn("No weekly data found for {}", instrument.getSymbol());
-            }
-        } catch (Exception e) {
-            logger.error("Error fetching weekly data for {}: {}", instrument.getSymbol(), e.getMessage());
+    /**
+     * Persists every staged quote and history bar in batched upserts and
+     * publishes the written rows. Runs on the flush schedule and at the end
+     * of a manual refresh, one flush at a time; whatever fails to be written
+     * is staged again for the next one.
+     */
+    @Scheduled(fixedDelayString = "${app.market.flush-interval-ms:5000}")
+    public void flushPendingUpdates() {
+        flushLock.lock();
+        try {
+            flushBars();
+            flushInstruments();
+        } finally {
+            flushLock.unlock();
         }
     }
 
-    private void fetchCryptoData(String symbol) throws IOException, InterruptedException, ParseException {
-        logger.debug("Attempting to fetch crypto data from Alpha Vantage for {}", symbol);
-        String url = "https://www.alphavantage.co/query?function=CURRENCY_EXCHANGE_RATE&from_currency=" + symbol
-                + "&to_currency=USD&apikey=" + apiKey;
-
-        // Increment API call counter
-        alphaVantageCallsInLastMinute.incrementAndGet();
-
-        HttpGet request = new HttpGet(url);
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String jsonResponse = EntityUtils.toString(response.getEntity());
-            JsonNode root = objectMapper.readTree(jsonResponse);
+    private void flushBars() {
+        List<PriceBar> bars = new ArrayList<>();
+        for (PriceBar bar = pendingBars.poll(); bar != null; bar = pendingBars.poll()) {
+            bars.add(bar);
+        }
+        if (bars.isEmpty()) {
+            return;
+        }
 
-            // Check for API limit message
-            if (root.has("Note") && root.get("Note").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Note").asText());
-                return;
-            }
+        try {
+            logger.info("Appended {} price bars", priceBarRepository.appendAll(bars));
+        } catch (RuntimeException e) {
+            pendingBars.addAll(bars);
+            logger.error("Error appending {} price bars, retrying on the next flush: {}", bars.size(),
+                    e.getMessage());
+        }
+    }
 
-            if (root.has("Information") && root.get("Information").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Information").asText());
-                return;
+    private void flushInstruments() {
+        List<Instrument> updates = new ArrayList<>(pendingUpdates.size());
+        for (String symbol : pendingUpdates.keySet()) {
+            Instrument instrument = pendingUpdates.remove(symbol);
+            if (instrument != null) {
+                updates.add(instrument);
             }
+        }
 
-            if (root.has("Realtime Currency Exchange Rate") && !root.get("Realtime Currency Exchange Rate").isEmpty()) {
-                JsonNode exchangeRate = root.get("Realtime Currency Exchange Rate");
+        if (updates.isEmpty()) {
+            return;
+        }
 
-                BigDecimal currentPrice = new BigDecimal(exchangeRate.get("5. Exchange Rate").asText());
+        // The snapshot the written rows are merged into must hold every instrument, not just these
+        getSnapshot();
 
-                // Get or create instrument
-                Instrument instrument = instrumentRepository.findBySymbol(symbol)
-                        .orElse(Instrument.builder()
-                                .symbol(symbol)
-                                .name(getCryptoName(symbol))
-                                .type(InstrumentType.CRYPTO)
-                                .build());
+        List<Instrument> written;
+        try {
+            written = instrumentRepository.upsertAll(updates);
+        } catch (RuntimeException e) {
+            // A quote staged since the drain is newer than the one that failed
+            updates.forEach(instrument -> pendingUpdates.putIfAbsent(instrument.getSymbol(), instrument));
+            logger.error("Error persisting {} instrument updates, retrying on the next flush: {}", updates.size(),
+                    e.getMessage());
+            return;
+        }
+        logger.info("Persisted {} instrument updates", written.size());
 
-                // For crypto, we need to fetch daily data to get change percentages
-                fetchCryptoDailyData(instrument);
+        // Readers switch to the new quotes in one atomic swap
+        snapshotCache.publishUpdates(written);
+    }
 
-                // Update instrument data
-                instrument.setCurrentPrice(currentPrice);
-                instrument.setLastUpdated(LocalDateTime.now());
+    // Stages the batch's quotes and returns the symbols it didn't cover
+    private List<TrackedSymbol> fetchBatch(BatchMarketDataProvider provider, List<TrackedSymbol> symbols,
+            BiConsumer<TrackedSymbol, Boolean> onDone) {
+        Map<String, ProviderQuote> quotes;
+        try {
+            quotes = router.fetchBatch(provider, symbols);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            symbols.forEach(symbol -> onDone.accept(symbol, false));
+            return List.of();
+        }
 
-                instrumentRepository.save(instrument);
-                logger.info("Updated crypto data from Alpha Vantage for {}: price=${}", symbol, currentPrice);
+        List<TrackedSymbol> missing = new ArrayList<>();
+        for (TrackedSymbol symbol : symbols) {
+            ProviderQuote quote = quotes.get(symbol.symbol());
+            if (quote != null) {
+                stageQuote(symbol, quote);
+                onDone.accept(symbol, true);
             } else {
-                logger.warn("No data found for crypto from Alpha Vantage: {}. Response: {}", symbol,
-                        jsonResponse.length() > 100 ? jsonResponse.substring(0, 100) + "..." : jsonResponse);
-
-                // Try CoinGecko as fallback
-                int index = CRYPTO_SYMBOL_MAPPING.indexOf(symbol);
-                if (index >= 0) {
-                    String coinGeckoId = CRYPTO_SYMBOLS.get(index);
-                    logger.info("Attempting to fetch {} from CoinGecko using ID: {}", symbol, coinGeckoId);
-                    fetchCryptoDataFromCoinGecko(coinGeckoId, symbol);
-                }
+                missing.add(symbol);
             }
         }
+        return missing;
     }
 
-    private void fetchCryptoDailyData(Instrument instrument) throws IOException, InterruptedException, ParseException {
-        logger.debug("Fetching daily crypto data for {}", instrument.getSymbol());
-        String url = "https://www.alphavantage.co/query?function=DIGITAL_CURRENCY_DAILY&symbol="
-                + instrument.getSymbol() + "&market=USD&apikey=" + apiKey;
-
-        // Increment API call counter
-        alphaVantageCallsInLastMinute.incrementAndGet();
-
-        HttpGet request = new HttpGet(url);
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String jsonResponse = EntityUtils.toString(response.getEntity());
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            // Check for API limit message
-            if (root.has("Note") && root.get("Note").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Note").asText());
-                return;
+    // Queues each fetch on its primary provider's lane; they drain as its rate limiter hands out permits
+    private CompletableFuture<Void> fetchAll(List<TrackedSymbol> symbols, BiConsumer<TrackedSymbol, Boolean> onDone) {
+        List<CompletableFuture<Void>> fetches = new ArrayList<>(symbols.size());
+        for (TrackedSymbol symbol : symbols) {
+            Optional<MarketDataProvider> primary = router.primaryFor(symbol);
+            if (primary.isEmpty()) {
+                logger.warn("No market data provider for {}", symbol.symbol());
+                onDone.accept(symbol, false);
+                continue;
             }
 
-            if (root.has("Information") && root.get("Information").asText().contains("API call frequency")) {
-                logger.warn("Alpha Vantage API limit reached: {}", root.get("Information").asText());
-                return;
-            }
-
-            if (root.has("Time Series (Digital Currency Daily)")) {
-                JsonNode timeSeries = root.get("Time Series (Digital Currency Daily)");
-
-                // Get the most recent days
-                String[] days = new String[8]; // 1 week + today
-                int i = 0;
-                for (JsonNode node : timeSeries) {
-                    if (i < days.length) {
-                        days[i++] = node.asText();
-                    } else {
-                        break;
-                    }
-                }
-
-                if (days[0] != null && days[1] != null) {
-                    // Daily change
-                    BigDecimal todayClose = new BigDecimal(timeSeries.get(days[0]).get("4a. close (USD)").asText());
-                    BigDecimal yesterdayClose = new BigDecimal(timeSeries.get(days[1]).get("4a. close (USD)").asText());
-
-                    BigDecimal dailyChange = todayClose.subtract(yesterdayClose)
-                            .divide(yesterdayClose, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100));
-
-                    instrument.setDailyChange(dailyChange);
-
-                    // Daily high/low
-                    BigDecimal dailyHigh = new BigDecimal(timeSeries.get(days[0]).get("2a. high (USD)").asText());
-                    BigDecimal dailyLow = new BigDecimal(timeSeries.get(days[0]).get("3a. low (USD)").asText());
-                    Long volume = new BigDecimal(timeSeries.get(days[0]).get("5. volume").asText()).longValue();
-
-                    instrument.setDailyHigh(dailyHigh);
-                    instrument.setDailyLow(dailyLow);
-                    instrument.setVolume(volume);
-
-                    // Weekly change
-                    if (days[7] != null) {
-                        BigDecimal weekAgoClose = new BigDecimal(
-                                timeSeries.get(days[7]).get("4a. close (USD)").asText());
-
-                        BigDecimal weeklyChange = todayClose.subtract(weekAgoClose)
-                                .divide(weekAgoClose, 4, RoundingMode.HALF_UP)
-                                .multiply(BigDecimal.valueOf(100));
-
-                        instrument.setWeeklyChange(weeklyChange);
+            try {
+                fetches.add(CompletableFuture.runAsync(() -> {
+                    boolean updated = false;
+                    try {
+                        Optional<ProviderQuote> quote = router.fetchQuote(symbol);
+                        quote.ifPresent(q -> stageQuote(symbol, q));
+                        updated = quote.isPresent();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        logger.error("Error fetching data for {}: {}", symbol.symbol(), e.getMessage());
+                    } finally {
+                        onDone.accept(symbol, updated);
                     }
-
-                    logger.debug("Updated daily crypto data for {}: daily change={}%, weekly change={}%",
-                            instrument.getSymbol(), dailyChange, instrument.getWeeklyChange());
-                }
-            } else {
-                logger.warn("No daily data found for crypto: {}", instrument.getSymbol());
+                }, executorFor(primary.get().getName())));
+            } catch (RejectedExecutionException e) {
+                // The lanes are shutting down
+                onDone.accept(symbol, false);
             }
-        } catch (Exception e) {
-            logger.error("Error fetching daily data for crypto {}: {}", instrument.getSymbol(), e.getMessage());
         }
-    }
 
-    private String getStockName(String symbol) {
-        switch (symbol) {
-            case "AAPL":
-                return "Apple Inc.";
-            case "MSFT":
-                return "Microsoft Corporation";
-            case "GOOGL":
-                return "Alphabet Inc.";
-            case "AMZN":
-                return "Amazon.com, Inc.";
-            case "TSLA":
-                return "Tesla, Inc.";
-            case "META":
-                return "Meta Platforms, Inc.";
-            case "NVDA":
-                return "NVIDIA Corporation";
-            case "JPM":
-                return "JPMorgan Chase & Co.";
-            case "V":
-                return "Visa Inc.";
-            case "WMT":
-                return "Walmart Inc.";
-            default:
-                return symbol;
-        }
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]));
     }
 
-    private String getCryptoName(String symbol) {
-        switch (symbol) {
-            case "BTC":
-                return "Bitcoin";
-            case "ETH":
-                return "Ethereum";
-            case "BNB":
-                return "Binance Coin";
-            case "XRP":
-                return "XRP";
-            case "ADA":
-                return "Cardano";
-            case "SOL":
-                return "Solana";
-            case "DOGE":
-                return "Dogecoin";
-            case "DOT":
-                return "Polkadot";
-            case "AVAX":
-                return "Avalanche";
-            case "MATIC":
-                return "Polygon";
-            default:
-                return symbol;
-        }
+    // Lanes stay bounded with virtual threads too, so a provider's symbols are still fetched in priority order
+    private ExecutorService executorFor(String provider) {
+        return providerExecutors.computeIfAbsent(provider, p -> Executors.newFixedThreadPool(ingestionThreads,
+                ThreadFactories.named("market-data-" + p + "-", virtualThreads)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.puente.tradingapp.service.impl;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.puente.tradingapp.model.PriceBar;
+import com.puente.tradingapp.model.PriceBar.BarInterval;
+import com.puente.tradingapp.repository.PriceBarRepository;
+import com.puente.tradingapp.service.PriceHistoryService;
+
+@Service
+public class PriceHistoryServiceImpl implements PriceHistoryService {
+
+    @Autowired
+    private PriceBarRepository priceBarRepository;
+
+    @Override
+    public List<PriceBar> getHistory(String symbol, BarInterval interval, LocalDate from, LocalDate to) {
+        return priceBarRepository.findBySymbolAndBarIntervalAndBucketStartBetweenOrderByBucketStartAsc(symbol,
+                interval, from, to);
+    }
+}
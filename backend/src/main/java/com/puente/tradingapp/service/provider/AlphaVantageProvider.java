@@ -0,0 +1,351 @@
+package com.puente.tradingapp.service.provider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpHeaders;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.model.PriceBar;
+import com.puente.tradingapp.model.PriceBar.BarInterval;
+import com.puente.tradingapp.repository.PriceBarRepository;
+import com.puente.tradingapp.service.ratelimit.PermitReservation;
+import com.puente.tradingapp.service.ratelimit.RateLimiterRegistry;
+
+/**
+ * Stock quotes (GLOBAL_QUOTE plus the weekly series) and crypto quotes
+ * (CURRENCY_EXCHANGE_RATE plus the daily series) from Alpha Vantage. A quote
+ * can take two requests, and the router reserves both permits up front; the
+ * follow-up waits for the second permit's own slot.
+ */
+@Component
+public class AlphaVantageProvider implements MarketDataProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlphaVantageProvider.class);
+
+    @Autowired
+    private UpstreamHttpClient httpClient;
+
+    @Autowired
+    private ProviderResponseDecoder responseDecoder;
+
+    @Autowired
+    private PriceBarRepository priceBarRepository;
+
+    @Value("${app.market.alphavantage.api-key}")
+    private String apiKey;
+
+    @Value("${app.market.alphavantage.base-url:https://www.alphavantage.co}")
+    private String baseUrl;
+
+    @Value("${app.market.history.weekly-backfill:104}")
+    private int weeklyBackfill;
+
+    @Value("${app.market.providers.alphavantage.priority:1}")
+    private int priority;
+
+    @Override
+    public String getName() {
+        return RateLimiterRegistry.ALPHA_VANTAGE;
+    }
+
+    @Override
+    public ProviderCapabilities getCapabilities() {
+        return new ProviderCapabilities(Set.of(InstrumentType.STOCK, InstrumentType.CRYPTO), priority, 1, 2);
+    }
+
+    @Override
+    public Optional<ProviderQuote> fetchQuote(TrackedSymbol symbol, PermitReservation permits)
+            throws IOException, InterruptedException {
+        return symbol.type() == InstrumentType.STOCK ? fetchStockQuote(symbol.symbolFor(getName()), permits)
+                : fetchCryptoQuote(symbol.symbolFor(getName()), permits);
+    }
+
+    private Optional<ProviderQuote> fetchStockQuote(String symbol, PermitReservation permits)
+            throws IOException, InterruptedException {
+        logger.debug("Fetching stock data for {}", symbol);
+        String url = baseUrl + "/query?function=GLOBAL_QUOTE&symbol=" + symbol + "&apikey=" + apiKey;
+
+        JsonNode root = query(url, symbol, "Global Quote", Integer.MAX_VALUE);
+        checkThrottled(root);
+
+        if (root.has("Global Quote") && !root.get("Global Quote").isEmpty()) {
+            JsonNode quote = root.get("Global Quote");
+
+            BigDecimal currentPrice = new BigDecimal(quote.get("05. price").asText());
+            BigDecimal previousClose = new BigDecimal(quote.get("08. previous close").asText());
+            BigDecimal dailyHigh = new BigDecimal(quote.get("03. high").asText());
+            BigDecimal dailyLow = new BigDecimal(quote.get("04. low").asText());
+            Long volume = Long.parseLong(quote.get("06. volume").asText());
+            LocalDate tradingDay = quote.has("07. latest trading day")
+                    ? LocalDate.parse(quote.get("07. latest trading day").asText())
+                    : LocalDate.now();
+
+            List<PriceBar> bars = new ArrayList<>();
+            bars.add(PriceBar.builder()
+                    .symbol(symbol)
+                    .barInterval(BarInterval.DAILY)
+                    .bucketStart(tradingDay)
+                    .open(ProviderQuotes.decimalField(quote, "02. open"))
+                    .high(dailyHigh)
+                    .low(dailyLow)
+                    .close(currentPrice)
+                    .volume(volume)
+                    .build());
+
+            // Weekly change comes from stored history when last week's close is known, otherwise
+            // from the weekly series (which also backfills the history)
+            BigDecimal weeklyChange = weeklyChangeFromHistory(symbol, tradingDay, currentPrice);
+            if (weeklyChange == null) {
+                weeklyChange = fetchWeeklyChange(symbol, tradingDay, currentPrice, bars, permits);
+            }
+
+            // The quote also rolls into its week's bar, after any series bar for the same week, so the stored week
+            // ends on its last quote rather than on the mid-week close the series had when it was fetched
+            LocalDate weekStart = weekStart(tradingDay);
+            bars.add(PriceBar.builder()
+                    .symbol(symbol)
+                    .barInterval(BarInterval.WEEKLY)
+                    .bucketStart(weekStart)
+                    .open(tradingDay.equals(weekStart) ? ProviderQuotes.decimalField(quote, "02. open") : null)
+                    .high(dailyHigh)
+                    .low(dailyLow)
+                    .close(currentPrice)
+                    .build());
+
+            return Optional.of(ProviderQuote.builder()
+                    .provider(getName())
+                    .symbol(symbol)
+                    .currentPrice(currentPrice)
+                    .dailyChange(ProviderQuotes.percentChange(currentPrice, previousClose))
+                    .weeklyChange(weeklyChange)
+                    .dailyHigh(dailyHigh)
+                    .dailyLow(dailyLow)
+                    .volume(volume)
+                    .bars(bars)
+                    .build());
+        } else {
+            logger.warn("No data found for stock: {}. Response: {}", symbol, ProviderQuotes.preview(root));
+            return Optional.empty();
+        }
+    }
+
+    // Change against the close of the last stored week that ended before the trading day's week
+    private BigDecimal weeklyChangeFromHistory(String symbol, LocalDate tradingDay, BigDecimal currentPrice) {
+        LocalDate weekStart = weekStart(tradingDay);
+        return priceBarRepository
+                .findFirstBySymbolAndBarIntervalAndBucketStartBeforeOrderByBucketStartDesc(symbol, BarInterval.WEEKLY,
+                        weekStart)
+                .filter(previousWeek -> !previousWeek.getBucketStart().isBefore(weekStart.minusWeeks(1)))
+                .filter(previousWeek -> previousWeek.getClose().signum() != 0)
+                .map(previousWeek -> ProviderQuotes.percentChange(currentPrice, previousWeek.getClose()))
+                .orElse(null);
+    }
+
+    // Adds the weekly series to bars and returns the change against the close of the last completed week
+    private BigDecimal fetchWeeklyChange(String symbol, LocalDate tradingDay, BigDecimal currentPrice,
+            List<PriceBar> bars, PermitReservation permits) throws InterruptedException {
+        logger.debug("Fetching weekly change for {}", symbol);
+        String url = baseUrl + "/query?function=TIME_SERIES_WEEKLY&symbol=" + symbol + "&apikey=" + apiKey;
+
+        permits.awaitNext();
+
+        try {
+            // Only the most recent weeks are kept as history, so the rest of the series is never parsed
+            JsonNode root = query(url, symbol, "Weekly Time Series", Math.max(2, weeklyBackfill));
+            checkThrottled(root);
+
+            if (root.has("Weekly Time Series") && !root.get("Weekly Time Series").isEmpty()) {
+                JsonNode timeSeries = root.get("Weekly Time Series");
+
+                // Keys are week-ending dates, most recent first, and the week in progress is keyed by its latest
+                // trading day; bars are keyed by the week's Monday so the partial week keeps one row as it grows
+                List<PriceBar> weeks = new ArrayList<>(timeSeries.size());
+                Set<LocalDate> weekStarts = new HashSet<>();
+                Iterator<Map.Entry<String, JsonNode>> entries = timeSeries.fields();
+                while (entries.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = entries.next();
+                    JsonNode week = entry.getValue();
+                    BigDecimal close = ProviderQuotes.decimalField(week, "4. close");
+                    LocalDate weekStart = weekStart(LocalDate.parse(entry.getKey()));
+                    if (close == null || !weekStarts.add(weekStart)) {
+                        continue;
+                    }
+
+                    JsonNode volume = week.get("5. volume");
+                    weeks.add(PriceBar.builder()
+                            .symbol(symbol)
+                            .barInterval(BarInterval.WEEKLY)
+                            .bucketStart(weekStart)
+                            .open(ProviderQuotes.decimalField(week, "1. open"))
+                            .high(ProviderQuotes.decimalField(week, "2. high"))
+                            .low(ProviderQuotes.decimalField(week, "3. low"))
+                            .close(close)
+                            .volume(volume != null ? volume.asLong() : null)
+                            .build());
+                }
+                bars.addAll(weeks);
+
+                // The in-progress week's close is the current price, so the change is against the week before it
+                LocalDate currentWeek = weekStart(tradingDay);
+                Optional<PriceBar> previousWeek = weeks.stream()
+                        .filter(week -> week.getBucketStart().isBefore(currentWeek))
+                        .filter(week -> week.getClose().signum() != 0)
+                        .findFirst();
+                if (previousWeek.isPresent()) {
+                    BigDecimal weeklyChange = ProviderQuotes.percentChange(currentPrice, previousWeek.get().getClose());
+                    logger.debug("Updated weekly change for {}: {}%", symbol, weeklyChange);
+                    return weeklyChange;
+                }
+                logger.warn("No completed week in the weekly data for {}", symbol);
+            } else {
+                logger.warn("No weekly data found for {}", symbol);
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            // The quote itself is still good without a weekly change
+            logger.error("Error fetching weekly data for {}: {}", symbol, e.getMessage());
+        }
+        return null;
+    }
+
+    private Optional<ProviderQuote> fetchCryptoQuote(String symbol, PermitReservation permits)
+            throws IOException, InterruptedException {
+        logger.debug("Fetching crypto data from Alpha Vantage for {}", symbol);
+        String url = baseUrl + "/query?function=CURRENCY_EXCHANGE_RATE&from_currency=" + symbol
+                + "&to_currency=USD&apikey=" + apiKey;
+
+        JsonNode root = query(url, symbol, "Realtime Currency Exchange Rate", Integer.MAX_VALUE);
+        checkThrottled(root);
+
+        if (root.has("Realtime Currency Exchange Rate") && !root.get("Realtime Currency Exchange Rate").isEmpty()) {
+            JsonNode exchangeRate = root.get("Realtime Currency Exchange Rate");
+
+            ProviderQuote quote = ProviderQuote.builder()
+                    .provider(getName())
+                    .symbol(symbol)
+                    .currentPrice(new BigDecimal(exchangeRate.get("5. Exchange Rate").asText()))
+                    .build();
+
+            // Change percentages come from the daily series
+            fetchCryptoDailyData(quote, permits);
+            return Optional.of(quote);
+        } else {
+            logger.warn("No data found for crypto from Alpha Vantage: {}. Response: {}", symbol,
+                    ProviderQuotes.preview(root));
+            return Optional.empty();
+        }
+    }
+
+    private void fetchCryptoDailyData(ProviderQuote quote, PermitReservation permits) throws InterruptedException {
+        String symbol = quote.getSymbol();
+        logger.debug("Fetching daily crypto data for {}", symbol);
+        String url = baseUrl + "/query?function=DIGITAL_CURRENCY_DAILY&symbol=" + symbol + "&market=USD&apikey="
+                + apiKey;
+
+        permits.awaitNext();
+
+        try {
+            // 1 week + today is all that's needed from the daily series
+            JsonNode root = query(url, symbol, "Time Series (Digital Currency Daily)", 8);
+            checkThrottled(root);
+
+            if (root.has("Time Series (Digital Currency Daily)")) {
+                JsonNode timeSeries = root.get("Time Series (Digital Currency Daily)");
+
+                // Get the most recent days
+                String[] days = new String[8]; // 1 week + today
+                int i = 0;
+                Iterator<String> dates = timeSeries.fieldNames();
+                while (dates.hasNext() && i < days.length) {
+                    days[i++] = dates.next();
+                }
+
+                if (days[0] != null && days[1] != null) {
+                    JsonNode today = timeSeries.get(days[0]);
+                    BigDecimal todayClose = new BigDecimal(today.get("4a. close (USD)").asText());
+                    BigDecimal yesterdayClose = new BigDecimal(timeSeries.get(days[1]).get("4a. close (USD)").asText());
+
+                    quote.setDailyChange(ProviderQuotes.percentChange(todayClose, yesterdayClose));
+                    quote.setDailyHigh(new BigDecimal(today.get("2a. high (USD)").asText()));
+                    quote.setDailyLow(new BigDecimal(today.get("3a. low (USD)").asText()));
+                    quote.setVolume(new BigDecimal(today.get("5. volume").asText()).longValue());
+
+                    if (days[7] != null) {
+                        BigDecimal weekAgoClose = new BigDecimal(
+                                timeSeries.get(days[7]).get("4a. close (USD)").asText());
+                        quote.setWeeklyChange(ProviderQuotes.percentChange(todayClose, weekAgoClose));
+                    }
+
+                    quote.setBars(List.of(PriceBar.builder()
+                            .symbol(symbol)
+                            .barInterval(BarInterval.DAILY)
+                            .bucketStart(LocalDate.parse(days[0]))
+                            .open(ProviderQuotes.decimalField(today, "1a. open (USD)"))
+                            .high(quote.getDailyHigh())
+                            .low(quote.getDailyLow())
+                            .close(todayClose)
+                            .volume(quote.getVolume())
+                            .build()));
+
+                    logger.debug("Updated daily crypto data for {}: daily change={}%, weekly change={}%",
+                            symbol, quote.getDailyChange(), quote.getWeeklyChange());
+                }
+            } else {
+                logger.warn("No daily data found for crypto: {}", symbol);
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching daily data for crypto {}: {}", symbol, e.getMessage());
+        }
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return BarInterval.WEEKLY.bucketStart(day);
+    }
+
+    // Decodes the named object of the response, keeping at most maxEntries of its entries
+    private JsonNode query(String url, String symbol, String field, int maxEntries)
+            throws IOException, InterruptedException {
+        return httpClient.get(getName(), url, (statusCode, headers, body) -> {
+            checkStatus(statusCode, headers, symbol);
+            return responseDecoder.readObjectEntries(body, field, maxEntries);
+        });
+    }
+
+    private void checkStatus(int statusCode, HttpHeaders headers, String symbol) throws IOException {
+        if (statusCode == 429) {
+            throw new ProviderThrottledException(getName(), "Alpha Vantage API rate limit reached for " + symbol,
+                    UpstreamHttpClient.retryAfter(headers));
+        }
+        if (statusCode >= 500) {
+            throw new IOException("Alpha Vantage API returned status code " + statusCode + " for " + symbol);
+        }
+    }
+
+    // Alpha Vantage reports throttling with a 200 and a "Note" or "Information" message
+    private void checkThrottled(JsonNode root) {
+        for (String field : List.of("Note", "Information")) {
+            if (root.has(field) && root.get(field).asText().contains("API call frequency")) {
+                throw new ProviderThrottledException(getName(),
+                        "Alpha Vantage API limit reached: " + root.get(field).asText());
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.puente.tradingapp.service.provider;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link MarketDataProvider} that can also quote several symbols in one
+ * request. Symbols whose primary provider is one of these and allows batches
+ * are fetched in bulk first; only what a batch missed is quoted singly.
+ */
+public interface BatchMarketDataProvider extends MarketDataProvider {
+
+    /**
+     * Fetches several symbols in one request, returning the quotes that came
+     * back keyed by symbol. Called with at most
+     * {@link ProviderCapabilities#maxBatchSize()} symbols.
+     */
+    Map<String, ProviderQuote> fetchQuotes(List<TrackedSymbol> symbols) throws IOException, InterruptedException;
+
+    // The provider as a batch provider, if it is one and its capabilities allow batches
+    static Optional<BatchMarketDataProvider> of(MarketDataProvider provider) {
+        return provider instanceof BatchMarketDataProvider batchProvider
+                && batchProvider.getCapabilities().supportsBatch() ? Optional.of(batchProvider) : Optional.empty();
+    }
+}
@@ -0,0 +1,183 @@
+package com.puente.tradingapp.service.provider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.model.PriceBar;
+import com.puente.tradingapp.model.PriceBar.BarInterval;
+import com.puente.tradingapp.service.ratelimit.PermitReservation;
+import com.puente.tradingapp.service.ratelimit.RateLimiterRegistry;
+
+/**
+ * Crypto quotes from CoinGecko: batched through /coins/markets, with the
+ * single-coin endpoint for individual lookups.
+ */
+@Component
+public class CoinGeckoProvider implements BatchMarketDataProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoinGeckoProvider.class);
+    private static final Set<String> COIN_MARKET_DATA_FIELDS = Set.of("current_price", "price_change_percentage_24h",
+            "price_change_percentage_7d", "high_24h", "low_24h", "total_volume");
+
+    @Autowired
+    private UpstreamHttpClient httpClient;
+
+    @Autowired
+    private ProviderResponseDecoder responseDecoder;
+
+    @Value("${app.market.coingecko.base-url:https://api.coingecko.com/api/v3}")
+    private String baseUrl;
+
+    @Value("${app.market.coingecko.batch-size:250}")
+    private int batchSize;
+
+    @Value("${app.market.providers.coingecko.priority:0}")
+    private int priority;
+
+    @Override
+    public String getName() {
+        return RateLimiterRegistry.COINGECKO;
+    }
+
+    @Override
+    public ProviderCapabilities getCapabilities() {
+        return new ProviderCapabilities(Set.of(InstrumentType.CRYPTO), priority, batchSize, 1);
+    }
+
+    @Override
+    public Optional<ProviderQuote> fetchQuote(TrackedSymbol symbol, PermitReservation permits)
+            throws IOException, InterruptedException {
+        String coinId = symbol.symbolFor(getName());
+        logger.debug("Fetching crypto data for {} ({})", symbol.symbol(), coinId);
+        String url = baseUrl + "/coins/" + coinId
+                + "?localization=false&tickers=false&market_data=true&community_data=false&developer_data=false";
+
+        JsonNode root = httpClient.get(getName(), url, (statusCode, headers, body) -> {
+            if (statusCode == 429) {
+                throw new ProviderThrottledException(getName(), "CoinGecko API rate limit reached for " + symbol.symbol(),
+                        UpstreamHttpClient.retryAfter(headers));
+            }
+            checkServerError(statusCode);
+
+            if (statusCode != 200) {
+                logger.warn("CoinGecko API returned status code {} for {}", statusCode, symbol.symbol());
+                return null;
+            }
+            return responseDecoder.readNestedFields(body, "market_data", COIN_MARKET_DATA_FIELDS);
+        });
+
+        if (root == null) {
+            return Optional.empty();
+        }
+        if (root.has("market_data")) {
+            JsonNode marketData = root.get("market_data");
+
+            return Optional.of(quote(symbol.symbol(),
+                    ProviderQuotes.decimalField(marketData.path("current_price"), "usd"),
+                    ProviderQuotes.decimalField(marketData, "price_change_percentage_24h"),
+                    ProviderQuotes.decimalField(marketData, "price_change_percentage_7d"),
+                    ProviderQuotes.decimalField(marketData.path("high_24h"), "usd"),
+                    ProviderQuotes.decimalField(marketData.path("low_24h"), "usd"),
+                    marketData.path("total_volume").path("usd").asLong()));
+        } else {
+            logger.warn("No market data found for crypto: {}. Response: {}", symbol.symbol(),
+                    ProviderQuotes.preview(root));
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Map<String, ProviderQuote> fetchQuotes(List<TrackedSymbol> symbols)
+            throws IOException, InterruptedException {
+        logger.debug("Fetching crypto markets for {} coins", symbols.size());
+        Map<String, String> symbolsByCoinId = symbols.stream()
+                .collect(Collectors.toMap(symbol -> symbol.symbolFor(getName()), TrackedSymbol::symbol, (a, b) -> a));
+        String url = baseUrl + "/coins/markets?vs_currency=usd&ids=" + String.join(",", symbolsByCoinId.keySet())
+                + "&per_page=" + symbolsByCoinId.size() + "&page=1&sparkline=false&price_change_percentage=24h,7d";
+
+        Map<String, ProviderQuote> quotes = new HashMap<>();
+        httpClient.get(getName(), url, (statusCode, headers, body) -> {
+            if (statusCode == 429) {
+                throw new ProviderThrottledException(getName(), "CoinGecko API rate limit reached for markets batch",
+                        UpstreamHttpClient.retryAfter(headers));
+            }
+            checkServerError(statusCode);
+
+            if (statusCode != 200) {
+                logger.warn("CoinGecko API returned status code {} for markets batch", statusCode);
+                return null;
+            }
+
+            // Coins are decoded one at a time as the array streams in
+            boolean isArray = responseDecoder.readArrayElements(body, coin -> {
+                String symbol = symbolsByCoinId.get(coin.path("id").asText());
+                BigDecimal currentPrice = ProviderQuotes.decimalField(coin, "current_price");
+                if (symbol == null || currentPrice == null) {
+                    return;
+                }
+
+                quotes.put(symbol, quote(symbol,
+                        currentPrice,
+                        ProviderQuotes.decimalField(coin, "price_change_percentage_24h"),
+                        ProviderQuotes.decimalField(coin, "price_change_percentage_7d_in_currency"),
+                        ProviderQuotes.decimalField(coin, "high_24h"),
+                        ProviderQuotes.decimalField(coin, "low_24h"),
+                        coin.path("total_volume").asLong()));
+            });
+
+            if (!isArray) {
+                logger.warn("Unexpected CoinGecko markets response for {} coins", symbols.size());
+            }
+            return null;
+        });
+        return quotes;
+    }
+
+    // Server errors count against the provider's health; other statuses are about the request
+    private void checkServerError(int statusCode) throws IOException {
+        if (statusCode >= 500) {
+            throw new IOException("CoinGecko API returned status code " + statusCode);
+        }
+    }
+
+    private ProviderQuote quote(String symbol, BigDecimal currentPrice, BigDecimal dailyChange,
+            BigDecimal weeklyChange, BigDecimal dailyHigh, BigDecimal dailyLow, Long volume) {
+        PriceBar dailyBar = PriceBar.builder()
+                .symbol(symbol)
+                .barInterval(BarInterval.DAILY)
+                .bucketStart(LocalDate.now())
+                .open(currentPrice)
+                .high(dailyHigh)
+                .low(dailyLow)
+                .close(currentPrice)
+                .volume(volume)
+                .build();
+
+        return ProviderQuote.builder()
+                .provider(getName())
+                .symbol(symbol)
+                .currentPrice(currentPrice)
+                .dailyChange(dailyChange)
+                .weeklyChange(weeklyChange)
+                .dailyHigh(dailyHigh)
+                .dailyLow(dailyLow)
+                .volume(volume)
+                .bars(List.of(dailyBar))
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.puente.tradingapp.service.provider;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import com.puente.tradingapp.service.ratelimit.PermitReservation;
+
+/**
+ * An upstream source of market quotes. Implementations are registered as
+ * Spring beans and picked up by {@link MarketDataRouter}, which decides which
+ * providers to ask for a symbol based on their {@link ProviderCapabilities}.
+ *
+ * <p>Providers only fetch and decode; the router acquires the rate limit
+ * permits for each call, and the caller decides what to do with the quote.
+ * A provider that is being throttled upstream throws
+ * {@link ProviderThrottledException} so the router can fail over. Providers
+ * that can quote several symbols per request implement
+ * {@link BatchMarketDataProvider}.
+ */
+public interface MarketDataProvider {
+
+    /**
+     * Name used for the provider's rate limiter, worker lane and
+     * {@code app.market.providers.<name>.*} properties.
+     */
+    String getName();
+
+    ProviderCapabilities getCapabilities();
+
+    default boolean supports(TrackedSymbol symbol) {
+        return getCapabilities().supports(symbol.type());
+    }
+
+    /**
+     * Fetches one symbol's quote. The first of {@code permits} is already due;
+     * a follow-up request waits for its own with
+     * {@link PermitReservation#awaitNext()}, and the router gives back the
+     * ones left unused.
+     */
+    Optional<ProviderQuote> fetchQuote(TrackedSymbol symbol, PermitReservation permits)
+            throws IOException, InterruptedException;
+}
@@ -0,0 +1,309 @@
+package com.puente.tradingapp.service.provider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.service.ratelimit.CircuitBreakerRegistry;
+import com.puente.tradingapp.service.ratelimit.PermitReservation;
+import com.puente.tradingapp.service.ratelimit.ProviderCircuitBreaker;
+import com.puente.tradingapp.service.ratelimit.RateLimiterRegistry;
+import com.puente.tradingapp.util.ThreadFactories;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Routes quote requests to the registered {@link MarketDataProvider}s.
+ *
+ * <p>Providers that support a symbol are tried in priority order: the first
+ * one waits for a rate limit permit, and when it is throttled upstream the
+ * request fails over to the next provider that has a permit to spare. For
+ * latency-sensitive symbols with more than one provider, the request is
+ * instead hedged: every provider with a free permit is asked at once, the
+ * first valid quote wins and the other requests are cancelled. Only providers
+ * that quote in a single request and have no daily quota are hedged onto, so
+ * hedging never spends a scarce budget on a duplicate.
+ *
+ * <p>Every outcome is reported to the provider's circuit breaker, and
+ * providers whose circuit is open are skipped, so their share of the work
+ * goes to the next healthy provider until the backoff has passed.
+ */
+@Component
+public class MarketDataRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataRouter.class);
+
+    @Autowired
+    private List<MarketDataProvider> registeredProviders;
+
+    @Autowired
+    private RateLimiterRegistry rateLimiters;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+
+    @Value("${app.market.hedging.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${app.market.refresh-interval-ms}")
+    private long refreshIntervalMs;
+
+    private List<MarketDataProvider> providers;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Hedged attempts run here rather than on the provider lanes, which may be the ones waiting on them
+    private ExecutorService hedgeExecutor;
+
+    @PostConstruct
+    public void registerProviders() {
+        ThreadFactory threadFactory = ThreadFactories.named("market-data-hedge-", virtualThreads);
+        hedgeExecutor = virtualThreads ? Executors.newThreadPerTaskExecutor(threadFactory)
+                : Executors.newCachedThreadPool(threadFactory);
+
+        providers = registeredProviders.stream()
+                .sorted(Comparator.comparingInt(provider -> provider.getCapabilities().priority()))
+                .toList();
+        providers.forEach(provider -> logger.info("Registered market data provider {}: {}", provider.getName(),
+                provider.getCapabilities()));
+    }
+
+    @PreDestroy
+    public void stopHedging() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    public List<MarketDataProvider> candidatesFor(TrackedSymbol symbol) {
+        return providers.stream().filter(provider -> provider.supports(symbol)).toList();
+    }
+
+    public Optional<MarketDataProvider> primaryFor(TrackedSymbol symbol) {
+        return providers.stream().filter(provider -> provider.supports(symbol)).findFirst();
+    }
+
+    public Optional<ProviderQuote> fetchQuote(TrackedSymbol symbol) throws InterruptedException {
+        List<MarketDataProvider> candidates = candidatesFor(symbol);
+        if (candidates.isEmpty()) {
+            logger.warn("No market data provider supports {} ({})", symbol.symbol(), symbol.type());
+            return Optional.empty();
+        }
+
+        List<MarketDataProvider> healthy = candidates.stream()
+                .filter(provider -> circuitBreakers.allowRequest(provider.getName()))
+                .toList();
+        if (healthy.isEmpty()) {
+            logger.debug("Every provider for {} is backing off", symbol.symbol());
+            return Optional.empty();
+        }
+
+        if (hedgingEnabled && symbol.latencySensitive()) {
+            List<MarketDataProvider> hedgeable = healthy.stream().filter(this::isHedgeable).toList();
+            if (hedgeable.size() > 1) {
+                return hedge(symbol, hedgeable);
+            }
+        }
+        return failover(symbol, healthy);
+    }
+
+    /**
+     * Quotes the symbols in as few requests as the provider's batch size
+     * allows. Symbols missing from the result were not returned, or the
+     * provider started throttling before their batch was sent.
+     */
+    public Map<String, ProviderQuote> fetchBatch(BatchMarketDataProvider provider, List<TrackedSymbol> symbols)
+            throws InterruptedException {
+        Map<String, ProviderQuote> quotes = new HashMap<>();
+        int batchSize = Math.max(1, provider.getCapabilities().maxBatchSize());
+
+        for (int from = 0; from < symbols.size(); from += batchSize) {
+            List<TrackedSymbol> batch = symbols.subList(from, Math.min(from + batchSize, symbols.size()));
+            if (!circuitBreakers.allowRequest(provider.getName())) {
+                break;
+            }
+            Optional<PermitReservation> permits = acquirePermit(provider, batch.size() + " symbols");
+            if (permits.isEmpty()) {
+                break;
+            }
+
+            try {
+                call(provider, () -> provider.fetchQuotes(batch)).forEach((symbol, quote) -> {
+                    if (quote.isValid()) {
+                        quotes.put(symbol, quote);
+                    }
+                });
+            } catch (ProviderThrottledException e) {
+                logger.warn("{}, leaving {} symbols for single requests", e.getMessage(), symbols.size() - from);
+                break;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error fetching {} batch of {} symbols: {}", provider.getName(), batch.size(),
+                        e.getMessage());
+            } finally {
+                permits.get().releaseUnused();
+            }
+        }
+        return quotes;
+    }
+
+    // Tries providers one after another, moving on only when one is throttled
+    private Optional<ProviderQuote> failover(TrackedSymbol symbol, List<MarketDataProvider> candidates)
+            throws InterruptedException {
+        for (int i = 0; i < candidates.size(); i++) {
+            MarketDataProvider provider = candidates.get(i);
+            Optional<PermitReservation> permits = i == 0 ? acquirePermit(provider, symbol.symbol())
+                    : tryAcquirePermit(provider);
+            if (permits.isEmpty()) {
+                continue;
+            }
+
+            try {
+                return call(provider, () -> provider.fetchQuote(symbol, permits.get())).filter(ProviderQuote::isValid);
+            } catch (ProviderThrottledException e) {
+                logger.warn("{}, failing over for {}", e.getMessage(), symbol.symbol());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                // Failures other than throttling fail over too once they have opened the provider's circuit
+                logger.error("Error fetching {} from {}: {}", symbol.symbol(), provider.getName(), e.getMessage());
+                if (!circuitBreakers.isOpen(provider.getName())) {
+                    return Optional.empty();
+                }
+            } finally {
+                permits.get().releaseUnused();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ProviderQuote> hedge(TrackedSymbol symbol, List<MarketDataProvider> candidates)
+            throws InterruptedException {
+        CompletionService<Optional<ProviderQuote>> completion = new ExecutorCompletionService<>(hedgeExecutor);
+        List<HedgedAttempt> attempts = new ArrayList<>(candidates.size());
+
+        // The primary waits for its permit inside the attempt; the others only go if a permit is free now
+        for (int i = 0; i < candidates.size(); i++) {
+            MarketDataProvider provider = candidates.get(i);
+            boolean primary = i == 0;
+            Optional<PermitReservation> reserved = primary ? Optional.empty() : tryAcquirePermit(provider);
+            if (!primary && reserved.isEmpty()) {
+                continue;
+            }
+            AtomicBoolean started = new AtomicBoolean();
+            Future<Optional<ProviderQuote>> future = completion.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return Optional.empty();
+                }
+                Optional<PermitReservation> permits = primary ? acquirePermit(provider, symbol.symbol()) : reserved;
+                if (permits.isEmpty()) {
+                    return Optional.empty();
+                }
+                try {
+                    return call(provider, () -> provider.fetchQuote(symbol, permits.get()));
+                } finally {
+                    permits.get().releaseUnused();
+                }
+            });
+            attempts.add(new HedgedAttempt(reserved, started, future));
+        }
+
+        try {
+            for (int i = 0; i < attempts.size(); i++) {
+                try {
+                    Optional<ProviderQuote> quote = completion.take().get().filter(ProviderQuote::isValid);
+                    if (quote.isPresent()) {
+                        logger.debug("{} answered first for {}", quote.get().getProvider(), symbol.symbol());
+                        return quote;
+                    }
+                } catch (ExecutionException e) {
+                    logger.warn("Hedged request for {} failed: {}", symbol.symbol(), e.getCause().getMessage());
+                }
+            }
+            return Optional.empty();
+        } finally {
+            attempts.forEach(HedgedAttempt::cancel);
+        }
+    }
+
+    // A hedged attempt; one cancelled before it started hands back the permits reserved for it
+    private record HedgedAttempt(Optional<PermitReservation> reserved, AtomicBoolean started,
+            Future<Optional<ProviderQuote>> future) {
+
+        void cancel() {
+            future.cancel(true);
+            if (reserved.isPresent() && started.compareAndSet(false, true)) {
+                reserved.get().releaseAll();
+            }
+        }
+    }
+
+    private boolean isHedgeable(MarketDataProvider provider) {
+        return !provider.getCapabilities().needsFollowUps()
+                && !rateLimiters.forProvider(provider.getName()).hasDailyQuota();
+    }
+
+    @FunctionalInterface
+    private interface ProviderCall<T> {
+        T call() throws Exception;
+    }
+
+    // Makes the call and reports how it went to the provider's circuit breaker
+    private <T> T call(MarketDataProvider provider, ProviderCall<T> call) throws Exception {
+        ProviderCircuitBreaker breaker = circuitBreakers.forProvider(provider.getName());
+        try {
+            T result = call.call();
+            breaker.recordSuccess();
+            return result;
+        } catch (ProviderThrottledException e) {
+            breaker.recordFailure(e.getRetryAfter());
+            throw e;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            // A hedged attempt cancelled by a faster provider didn't fail
+            if (!Thread.currentThread().isInterrupted()) {
+                breaker.recordFailure(null);
+            }
+            throw e;
+        }
+    }
+
+    // Blocks until the provider's limiter grants the call's permits, giving up once a whole refresh interval
+    // has passed; follow-up requests get theirs reserved here too, so they never wait on the limiter mid-call
+    private Optional<PermitReservation> acquirePermit(MarketDataProvider provider, String what)
+            throws InterruptedException {
+        Duration maxWait = Duration.ofMillis(refreshIntervalMs);
+        Optional<PermitReservation> permits = rateLimiters.acquire(provider.getName(),
+                provider.getCapabilities().requestsPerQuote(), maxWait, maxWait);
+        if (permits.isEmpty()) {
+            logger.warn("{} request budget exhausted, skipping {}", provider.getName(), what);
+        }
+        return permits;
+    }
+
+    // Reserves the call's permits only if the first one is free now
+    private Optional<PermitReservation> tryAcquirePermit(MarketDataProvider provider) throws InterruptedException {
+        return rateLimiters.acquire(provider.getName(), provider.getCapabilities().requestsPerQuote(), Duration.ZERO,
+                Duration.ofMillis(refreshIntervalMs));
+    }
+}
@@ -0,0 +1,29 @@
+package com.puente.tradingapp.service.provider;
+
+import java.util.Set;
+
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+
+/**
+ * What a {@link MarketDataProvider} can serve. Providers with a lower
+ * {@code priority} are asked first; a {@code maxBatchSize} above one lets a
+ * {@link BatchMarketDataProvider} quote that many symbols in a single request.
+ * {@code requestsPerQuote} is the most upstream requests one call can take
+ * (follow-ups included); the router reserves that many permits per call and
+ * gives back the ones a call didn't use.
+ */
+public record ProviderCapabilities(Set<InstrumentType> instrumentTypes, int priority, int maxBatchSize,
+        int requestsPerQuote) {
+
+    public boolean supports(InstrumentType type) {
+        return instrumentTypes.contains(type);
+    }
+
+    public boolean supportsBatch() {
+        return maxBatchSize > 1;
+    }
+
+    public boolean needsFollowUps() {
+        return requestsPerQuote > 1;
+    }
+}
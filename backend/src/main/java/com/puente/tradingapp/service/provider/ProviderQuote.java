@@ -0,0 +1,34 @@
+package com.puente.tradingapp.service.provider;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.puente.tradingapp.model.PriceBar;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProviderQuote {
+    private String provider;
+    private String symbol;
+    private BigDecimal currentPrice;
+    private BigDecimal dailyChange;
+    private BigDecimal weeklyChange;
+    private BigDecimal dailyHigh;
+    private BigDecimal dailyLow;
+    private Long volume;
+
+    // History bars fetched alongside the quote, appended to price_bars when the quote is used
+    @Builder.Default
+    private List<PriceBar> bars = List.of();
+
+    public boolean isValid() {
+        return currentPrice != null && currentPrice.signum() > 0;
+    }
+}
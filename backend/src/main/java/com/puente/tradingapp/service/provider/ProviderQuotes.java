@@ -0,0 +1,41 @@
+package com.puente.tradingapp.service.provider;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.puente.tradingapp.util.FixedPoint;
+
+final class ProviderQuotes {
+
+    private ProviderQuotes() {
+    }
+
+    static BigDecimal decimalField(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : new BigDecimal(value.asText());
+    }
+
+    // Percent change from previous to current, to two decimal places as the providers report it
+    static BigDecimal percentChange(BigDecimal current, BigDecimal previous) {
+        // Exact at the price scale, so the long arithmetic gives the same result as BigDecimal's
+        if (FixedPoint.isExact(current, FixedPoint.PRICE_SCALE) && FixedPoint.isExact(previous, FixedPoint.PRICE_SCALE)
+                && previous.signum() != 0) {
+            try {
+                return FixedPoint.toDecimal(FixedPoint.percentChange(
+                        FixedPoint.toScaled(current, FixedPoint.PRICE_SCALE),
+                        FixedPoint.toScaled(previous, FixedPoint.PRICE_SCALE)), FixedPoint.PERCENT_SCALE);
+            } catch (ArithmeticException e) {
+                // Overflowed; fall through to BigDecimal
+            }
+        }
+        return current.subtract(previous)
+                .divide(previous, 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
+    }
+
+    static String preview(JsonNode root) {
+        String json = root.toString();
+        return json.length() > 100 ? json.substring(0, 100) + "..." : json;
+    }
+}
@@ -0,0 +1,120 @@
+package com.puente.tradingapp.service.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Decodes upstream provider responses straight from the response stream with
+ * Jackson's streaming parser. Only the parts a caller asks for are turned into
+ * (small) trees; everything else is skipped token by token, and parsing stops
+ * as soon as the requested data has been read.
+ */
+@Component
+public class ProviderResponseDecoder {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Reads the top-level scalar fields (such as Alpha Vantage's "Note" and
+     * "Information" messages) and at most {@code maxEntries} entries of the
+     * object named {@code field}. Nothing after that object is read.
+     */
+    public ObjectNode readObjectEntries(InputStream in, String field, int maxEntries) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return root;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (name.equals(field) && token == JsonToken.START_OBJECT) {
+                    root.set(name, readEntries(parser, maxEntries));
+                    return root;
+                } else if (token.isScalarValue()) {
+                    root.put(name, parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Reads only the listed children of the top-level object named
+     * {@code field}, skipping every other part of the document.
+     */
+    public ObjectNode readNestedFields(InputStream in, String field, Set<String> children) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return root;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (name.equals(field) && token == JsonToken.START_OBJECT) {
+                    ObjectNode nested = objectMapper.createObjectNode();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String child = parser.getCurrentName();
+                        parser.nextToken();
+                        if (children.contains(child)) {
+                            nested.set(child, parser.readValueAsTree());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    root.set(name, nested);
+                    return root;
+                } else if (token.isScalarValue()) {
+                    root.put(name, parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Hands each element of a top-level array to {@code consumer} as it is
+     * parsed, so only one element is materialized at a time.
+     *
+     * @return false if the document is not an array
+     */
+    public boolean readArrayElements(InputStream in, Consumer<JsonNode> consumer) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return false;
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY && parser.currentToken() != null) {
+                consumer.accept(parser.readValueAsTree());
+            }
+        }
+        return true;
+    }
+
+    private ObjectNode readEntries(JsonParser parser, int maxEntries) throws IOException {
+        ObjectNode entries = objectMapper.createObjectNode();
+        while (entries.size() < maxEntries && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            entries.set(key, parser.readValueAsTree());
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,28 @@
+package com.puente.tradingapp.service.provider;
+
+import java.time.Duration;
+
+public class ProviderThrottledException extends RuntimeException {
+
+    private final String provider;
+    private final Duration retryAfter;
+
+    public ProviderThrottledException(String provider, String message) {
+        this(provider, message, null);
+    }
+
+    public ProviderThrottledException(String provider, String message, Duration retryAfter) {
+        super(message);
+        this.provider = provider;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    // How long the provider asked callers to wait, or null when it didn't say
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,24 @@
+package com.puente.tradingapp.service.provider;
+
+import java.util.Map;
+
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+
+/**
+ * A symbol the ingestion engine keeps quotes for. {@code providerSymbols}
+ * holds the identifier a provider knows the symbol by when it differs from the
+ * ticker (e.g. CoinGecko's "bitcoin" for BTC).
+ */
+public record TrackedSymbol(String symbol, String name, InstrumentType type, Map<String, String> providerSymbols,
+        Tier tier, long favorites, boolean latencySensitive) {
+
+    // HOT symbols are the ones users watch and are refreshed every cycle; COLD ones less often
+    public enum Tier {
+        HOT,
+        COLD
+    }
+
+    public String symbolFor(String provider) {
+        return providerSymbols.getOrDefault(provider, symbol);
+    }
+}
@@ -0,0 +1,219 @@
+package com.puente.tradingapp.service.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.util.ThreadFactories;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * HTTP access to the upstream market data APIs. Each provider gets its own
+ * JDK {@link HttpClient}, and so its own pool of kept-alive connections,
+ * negotiating HTTP/2 where the server offers it.
+ *
+ * <p>Every request has a deadline covering the wait for an in-flight slot,
+ * the response headers and reading the body: a body still being read when
+ * the deadline passes is closed under the reader. In-flight requests are
+ * capped per provider, and each call's latency is recorded as
+ * {@code market.provider.requests}, tagged by provider and outcome.
+ * Properties are read from {@code app.market.providers.<provider>.*}, falling
+ * back to {@code app.market.http.*}.
+ */
+@Component
+public class UpstreamHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamHttpClient.class);
+
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(int statusCode, HttpHeaders headers, InputStream body) throws IOException;
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.market.http.connect-timeout-ms:5000}")
+    private long defaultConnectTimeoutMs;
+
+    @Value("${app.market.http.request-timeout-ms:20000}")
+    private long defaultRequestTimeoutMs;
+
+    @Value("${app.market.http.max-in-flight:4}")
+    private int defaultMaxInFlight;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService deadlines = Executors
+            .newSingleThreadScheduledExecutor(new CustomizableThreadFactory("upstream-deadline-"));
+
+    @PreDestroy
+    public void shutdown() {
+        deadlines.shutdownNow();
+        // Aborts requests still in flight and closes the pooled connections before their executor goes
+        upstreams.values().forEach(upstream -> {
+            upstream.client.shutdownNow();
+            upstream.executor.shutdownNow();
+        });
+    }
+
+    /**
+     * Sends a GET and hands the response to the handler, which must be done
+     * with the body when it returns.
+     *
+     * @throws HttpTimeoutException if the deadline passes first
+     */
+    public <T> T get(String provider, String url, ResponseHandler<T> handler)
+            throws IOException, InterruptedException {
+        Upstream upstream = upstreams.computeIfAbsent(provider, this::createUpstream);
+        long start = System.nanoTime();
+        long deadline = start + upstream.requestTimeout.toNanos();
+
+        if (!upstream.inFlight.tryAcquire(upstream.requestTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            record(provider, "saturated", start);
+            throw new HttpTimeoutException(provider + " already has " + upstream.maxInFlight + " requests in flight");
+        }
+
+        String outcome = "error";
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(remaining(deadline))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response = upstream.client.send(request,
+                    HttpResponse.BodyHandlers.ofInputStream());
+            outcome = response.statusCode() / 100 + "xx";
+
+            try (InputStream body = response.body()) {
+                ScheduledFuture<?> watchdog = deadlines.schedule(() -> closeQuietly(body),
+                        remaining(deadline).toNanos(), TimeUnit.NANOSECONDS);
+                try {
+                    return handler.handle(response.statusCode(), response.headers(), body);
+                } catch (IOException e) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        throw new HttpTimeoutException(provider + " response not read within "
+                                + upstream.requestTimeout.toMillis() + "ms");
+                    }
+                    throw e;
+                } finally {
+                    watchdog.cancel(false);
+                }
+            }
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout";
+            throw e;
+        } finally {
+            upstream.inFlight.release();
+            record(provider, outcome, start);
+        }
+    }
+
+    /**
+     * The {@code Retry-After} header as a duration from now, whether given in
+     * seconds or as an HTTP date, or null when absent or unreadable.
+     */
+    public static Duration retryAfter(HttpHeaders headers) {
+        String value = headers.firstValue("Retry-After").map(String::trim).orElse(null);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // Not seconds, so it should be a date
+        }
+        try {
+            Duration untilDate = Duration.between(Instant.now(),
+                    ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+            return untilDate.isNegative() ? Duration.ZERO : untilDate;
+        } catch (DateTimeParseException e) {
+            logger.debug("Ignoring unreadable Retry-After: {}", value);
+            return null;
+        }
+    }
+
+    private void record(String provider, String outcome, long start) {
+        Timer.builder("market.provider.requests")
+                .description("Upstream market data requests")
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static Duration remaining(long deadline) {
+        // HttpRequest rejects a zero timeout, so an expired deadline still gets a token millisecond
+        return Duration.ofNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(1), deadline - System.nanoTime()));
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Closed to abort the read; nothing else to do
+        }
+    }
+
+    private Upstream createUpstream(String provider) {
+        String prefix = "app.market.providers." + provider + ".";
+        Duration connectTimeout = Duration.ofMillis(
+                environment.getProperty(prefix + "connect-timeout-ms", Long.class, defaultConnectTimeoutMs));
+        Duration requestTimeout = Duration.ofMillis(
+                environment.getProperty(prefix + "request-timeout-ms", Long.class, defaultRequestTimeoutMs));
+        int maxInFlight = environment.getProperty(prefix + "max-in-flight", Integer.class, defaultMaxInFlight);
+
+        ThreadFactory threadFactory = ThreadFactories.named("upstream-" + provider + "-", virtualThreads);
+        ExecutorService executor = virtualThreads ? Executors.newThreadPerTaskExecutor(threadFactory)
+                : Executors.newCachedThreadPool(threadFactory);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+
+        logger.info("HTTP client for {}: connect timeout {}ms, deadline {}ms, {} requests in flight", provider,
+                connectTimeout.toMillis(), requestTimeout.toMillis(), maxInFlight);
+        return new Upstream(client, executor, requestTimeout, maxInFlight, new Semaphore(maxInFlight, true));
+    }
+
+    private record Upstream(HttpClient client, ExecutorService executor, Duration requestTimeout, int maxInFlight,
+            Semaphore inFlight) {
+    }
+}
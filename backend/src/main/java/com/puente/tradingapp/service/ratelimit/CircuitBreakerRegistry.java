@@ -0,0 +1,74 @@
+package com.puente.tradingapp.service.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands out one {@link ProviderCircuitBreaker} per upstream provider,
+ * configured from {@code app.market.providers.<provider>.circuit.*} and
+ * falling back to {@code app.market.circuit.*}.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerRegistry.class);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.market.circuit.failure-threshold:3}")
+    private int defaultFailureThreshold;
+
+    @Value("${app.market.circuit.base-backoff-ms:30000}")
+    private long defaultBaseBackoffMs;
+
+    @Value("${app.market.circuit.max-backoff-ms:900000}")
+    private long defaultMaxBackoffMs;
+
+    private final Map<String, ProviderCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public ProviderCircuitBreaker forProvider(String provider) {
+        return breakers.computeIfAbsent(provider, this::createBreaker);
+    }
+
+    public boolean allowRequest(String provider) {
+        return forProvider(provider).allowRequest();
+    }
+
+    public boolean isOpen(String provider) {
+        return forProvider(provider).isOpen();
+    }
+
+    private ProviderCircuitBreaker createBreaker(String provider) {
+        String prefix = "app.market.providers." + provider + ".circuit.";
+        int failureThreshold = environment.getProperty(prefix + "failure-threshold", Integer.class,
+                defaultFailureThreshold);
+        long baseBackoffMs = environment.getProperty(prefix + "base-backoff-ms", Long.class, defaultBaseBackoffMs);
+        long maxBackoffMs = environment.getProperty(prefix + "max-backoff-ms", Long.class, defaultMaxBackoffMs);
+
+        ProviderCircuitBreaker breaker = new ProviderCircuitBreaker(provider, failureThreshold,
+                Duration.ofMillis(baseBackoffMs), Duration.ofMillis(maxBackoffMs));
+        Gauge.builder("market.provider.circuit", breaker, b -> b.getState().ordinal())
+                .description("Provider circuit state (0 closed, 1 half-open, 2 open)")
+                .tag("provider", provider)
+                .register(meterRegistry);
+
+        logger.info("Circuit breaker for {}: opens after {} failures, backoff {}-{}s", provider, failureThreshold,
+                baseBackoffMs / 1000, maxBackoffMs / 1000);
+        return breaker;
+    }
+}
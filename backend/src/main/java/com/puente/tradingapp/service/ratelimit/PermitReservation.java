@@ -0,0 +1,77 @@
+package com.puente.tradingapp.service.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permits reserved together by {@link ProviderRateLimiter#acquire(int,
+ * java.time.Duration, java.time.Duration)}. The first is due by the time the
+ * reservation is handed out; each later one keeps its own slot, which can be
+ * more than one interval after the one before when other callers reserved in
+ * between. Not thread-safe: a reservation belongs to the call that made it.
+ */
+public final class PermitReservation {
+
+    private final ProviderRateLimiter limiter;
+    // Per permit, the slot in each bucket, or TokenBucket.NO_SLOT when the limiter has no such bucket
+    private final long[] minuteSlots;
+    private final long[] daySlots;
+    private int next;
+
+    PermitReservation(ProviderRateLimiter limiter, int permits) {
+        this.limiter = limiter;
+        this.minuteSlots = new long[permits];
+        this.daySlots = new long[permits];
+    }
+
+    void add(int permit, long minuteSlot, long daySlot) {
+        minuteSlots[permit] = minuteSlot;
+        daySlots[permit] = daySlot;
+    }
+
+    long waitNanos(int permit) {
+        return limiter.waitNanos(minuteSlots[permit], daySlots[permit]);
+    }
+
+    void markFirstUsed() {
+        next = 1;
+    }
+
+    public int remaining() {
+        return minuteSlots.length - next;
+    }
+
+    /**
+     * Waits until the next reserved permit is due, for a follow-up request.
+     *
+     * @throws IllegalStateException if every permit has been used
+     */
+    public void awaitNext() throws InterruptedException {
+        if (remaining() == 0) {
+            throw new IllegalStateException("No reserved permits left for " + limiter.getProvider());
+        }
+        long wait = waitNanos(next++);
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Gives back the permits that weren't used, from the last one back, for
+     * as long as nothing was reserved after them. A permit with other
+     * callers' reservations behind it stays spent.
+     */
+    public void releaseUnused() {
+        for (int permit = minuteSlots.length - 1; permit >= next; permit--) {
+            if (!limiter.releaseIfLast(minuteSlots[permit], daySlots[permit])) {
+                break;
+            }
+        }
+        next = minuteSlots.length;
+    }
+
+    // Gives back every permit, the first included, when the call never went out
+    public void releaseAll() {
+        next = 0;
+        releaseUnused();
+    }
+}
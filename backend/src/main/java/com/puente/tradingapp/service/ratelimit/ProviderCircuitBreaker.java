@@ -0,0 +1,145 @@
+package com.puente.tradingapp.service.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops calls to a provider that keeps throttling or failing. After
+ * {@code failureThreshold} consecutive failures, or any throttle that says
+ * when to retry, the circuit opens for an exponentially growing, jittered
+ * backoff (at least the provider's {@code Retry-After}). Once that passes it
+ * is half-open: calls go through again, and the first outcome either closes
+ * it or opens it for twice as long.
+ */
+public class ProviderCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderCircuitBreaker.class);
+
+    private final String provider;
+    private final int failureThreshold;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int consecutiveOpens;
+    private long openUntilNanos;
+
+    public ProviderCircuitBreaker(String provider, int failureThreshold, Duration baseBackoff, Duration maxBackoff) {
+        this.provider = provider;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean allowRequest() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+                state = State.HALF_OPEN;
+                logger.info("Circuit for {} half-open, trying it again", provider);
+            }
+            return state != State.OPEN;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Whether calls are being refused right now; unlike allowRequest, never moves an expired circuit to half-open
+    public boolean isOpen() {
+        lock.lock();
+        try {
+            return state == State.OPEN && System.nanoTime() - openUntilNanos < 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Time until calls are allowed again; zero unless open
+    public Duration remainingOpen() {
+        lock.lock();
+        try {
+            return state == State.OPEN ? Duration.ofNanos(Math.max(0, openUntilNanos - System.nanoTime()))
+                    : Duration.ZERO;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordSuccess() {
+        lock.lock();
+        try {
+            if (state != State.CLOSED) {
+                logger.info("Circuit for {} closed", provider);
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            consecutiveOpens = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param retryAfter how long the provider asked to be left alone, or null
+     */
+    public void recordFailure(Duration retryAfter) {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                // A call that was already in flight; only a later Retry-After moves the reopening
+                if (retryAfter != null) {
+                    openUntilNanos = Math.max(openUntilNanos, System.nanoTime() + retryAfter.toNanos());
+                }
+                return;
+            }
+
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold || retryAfter != null) {
+                open(retryAfter);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open(Duration retryAfter) {
+        long backoffMs = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(consecutiveOpens, 20));
+        // Equal jitter: half the backoff is fixed and half random, so recovering lanes don't all probe at once
+        long delayMs = backoffMs / 2 + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1);
+        if (retryAfter != null) {
+            delayMs = Math.max(delayMs, retryAfter.toMillis());
+        }
+
+        logger.warn("Circuit for {} open for {}s after {} failures", provider, delayMs / 1000, consecutiveFailures);
+        state = State.OPEN;
+        openUntilNanos = System.nanoTime() + Duration.ofMillis(delayMs).toNanos();
+        consecutiveOpens++;
+        consecutiveFailures = 0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.puente.tradingapp.service.ratelimit;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-provider request budget combining a per-minute and an optional per-day
+ * token bucket. A permit is only granted when both buckets have one.
+ */
+public class ProviderRateLimiter {
+
+    private final String provider;
+    private final long requestsPerMinute;
+    private final long requestsPerDay;
+    private final TokenBucket minuteBucket;
+    private final TokenBucket dayBucket;
+
+    public ProviderRateLimiter(String provider, long requestsPerMinute, long requestsPerDay, long burst) {
+        this.provider = provider;
+        this.requestsPerMinute = requestsPerMinute;
+        this.requestsPerDay = requestsPerDay;
+        this.minuteBucket = requestsPerMinute > 0
+                ? new TokenBucket(requestsPerMinute, Duration.ofMinutes(1), burst)
+                : null;
+        this.dayBucket = requestsPerDay > 0
+                ? new TokenBucket(requestsPerDay, Duration.ofDays(1), requestsPerDay)
+                : null;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * Requests per minute the provider can sustain over a whole day, or
+     * {@link Double#POSITIVE_INFINITY} when it has no quota.
+     */
+    public double getSustainedRequestsPerMinute() {
+        double perMinute = requestsPerMinute > 0 ? requestsPerMinute : Double.POSITIVE_INFINITY;
+        double perDay = requestsPerDay > 0 ? requestsPerDay / (double) Duration.ofDays(1).toMinutes()
+                : Double.POSITIVE_INFINITY;
+        return Math.min(perMinute, perDay);
+    }
+
+    /**
+     * Gap between consecutive permits once the burst is spent, or zero when
+     * there is no per-minute limit.
+     */
+    public Duration getPermitInterval() {
+        return requestsPerMinute > 0 ? Duration.ofMinutes(1).dividedBy(requestsPerMinute) : Duration.ZERO;
+    }
+
+    public boolean hasDailyQuota() {
+        return dayBucket != null;
+    }
+
+    public boolean tryAcquire() {
+        return reserve(new PermitReservation(this, 1), 0, 0);
+    }
+
+    public void acquire() throws InterruptedException {
+        acquire(Duration.ofNanos(Long.MAX_VALUE));
+    }
+
+    public boolean acquire(Duration maxWait) throws InterruptedException {
+        return acquire(1, maxWait, maxWait).isPresent();
+    }
+
+    /**
+     * Reserves {@code permits} permits together, the first due within
+     * {@code firstWait} and the others within {@code maxWait}, then waits
+     * until the first is due. Either all of them are reserved or none is, so
+     * a call that needs several requests never starts without its follow-ups;
+     * the reservation tells when each of those is due.
+     */
+    public Optional<PermitReservation> acquire(int permits, Duration firstWait, Duration maxWait)
+            throws InterruptedException {
+        PermitReservation reservation = new PermitReservation(this, permits);
+        if (!reserve(reservation, 0, firstWait.toNanos())) {
+            return Optional.empty();
+        }
+        for (int permit = 1; permit < permits; permit++) {
+            if (!reserve(reservation, permit, maxWait.toNanos())) {
+                reservation.releaseAll();
+                return Optional.empty();
+            }
+        }
+
+        long wait = reservation.waitNanos(0);
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                reservation.releaseAll();
+                throw e;
+            }
+        }
+        reservation.markFirstUsed();
+        return Optional.of(reservation);
+    }
+
+    // Reserves one permit in both buckets, or in neither
+    private boolean reserve(PermitReservation reservation, int permit, long maxWaitNanos) {
+        long daySlot = dayBucket != null ? dayBucket.reserveSlot(maxWaitNanos) : TokenBucket.NO_SLOT;
+        if (dayBucket != null && daySlot == TokenBucket.NO_SLOT) {
+            return false;
+        }
+
+        long minuteSlot = minuteBucket != null ? minuteBucket.reserveSlot(maxWaitNanos) : TokenBucket.NO_SLOT;
+        if (minuteBucket != null && minuteSlot == TokenBucket.NO_SLOT) {
+            if (dayBucket != null) {
+                dayBucket.releaseIfLast(daySlot);
+            }
+            return false;
+        }
+
+        reservation.add(permit, minuteSlot, daySlot);
+        return true;
+    }
+
+    // How long until a permit with these slots is due in both buckets
+    long waitNanos(long minuteSlot, long daySlot) {
+        long now = System.nanoTime();
+        long dayWait = dayBucket != null ? dayBucket.dueAt(daySlot) - now : 0;
+        long minuteWait = minuteBucket != null ? minuteBucket.dueAt(minuteSlot) - now : 0;
+        return Math.max(0, Math.max(dayWait, minuteWait));
+    }
+
+    // The minute bucket goes first; if only it was still last, the day's permit stays spent, which errs safe
+    boolean releaseIfLast(long minuteSlot, long daySlot) {
+        if (minuteBucket != null && !minuteBucket.releaseIfLast(minuteSlot)) {
+            return false;
+        }
+        return dayBucket == null || dayBucket.releaseIfLast(daySlot);
+    }
+}
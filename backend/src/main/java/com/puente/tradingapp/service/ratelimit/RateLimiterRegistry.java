@@ -0,0 +1,62 @@
+package com.puente.tradingapp.service.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out one {@link ProviderRateLimiter} per upstream provider, configured
+ * from {@code app.market.providers.<provider>.*} properties.
+ */
+@Component
+public class RateLimiterRegistry {
+
+    public static final String ALPHA_VANTAGE = "alphavantage";
+    public static final String COINGECKO = "coingecko";
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterRegistry.class);
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<String, ProviderRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ProviderRateLimiter forProvider(String provider) {
+        return limiters.computeIfAbsent(provider, this::createLimiter);
+    }
+
+    public boolean tryAcquire(String provider) {
+        return forProvider(provider).tryAcquire();
+    }
+
+    public void acquire(String provider) throws InterruptedException {
+        forProvider(provider).acquire();
+    }
+
+    public boolean acquire(String provider, Duration maxWait) throws InterruptedException {
+        return forProvider(provider).acquire(maxWait);
+    }
+
+    public Optional<PermitReservation> acquire(String provider, int permits, Duration firstWait, Duration maxWait)
+            throws InterruptedException {
+        return forProvider(provider).acquire(permits, firstWait, maxWait);
+    }
+
+    private ProviderRateLimiter createLimiter(String provider) {
+        String prefix = "app.market.providers." + provider + ".";
+        long perMinute = environment.getProperty(prefix + "requests-per-minute", Long.class, 0L);
+        long perDay = environment.getProperty(prefix + "requests-per-day", Long.class, 0L);
+        long burst = environment.getProperty(prefix + "burst", Long.class, 1L);
+
+        logger.info("Rate limiter for {}: {} requests/minute, {} requests/day, burst {}", provider,
+                perMinute > 0 ? perMinute : "unlimited", perDay > 0 ? perDay : "unlimited", burst);
+        return new ProviderRateLimiter(provider, perMinute, perDay, burst);
+    }
+}
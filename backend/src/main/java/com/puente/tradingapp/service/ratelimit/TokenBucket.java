@@ -0,0 +1,88 @@
+package com.puente.tradingapp.service.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: the only
+ * state is the theoretical arrival time of the next permit, advanced with CAS.
+ * A bucket with {@code burst = 1} behaves as a leaky bucket that releases
+ * exactly one permit per emission interval.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier clock;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long permits, Duration period, long burst) {
+        this(permits, period, burst, System::nanoTime);
+    }
+
+    TokenBucket(long permits, Duration period, long burst, LongSupplier clock) {
+        if (permits <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Permits and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, period.toNanos() / permits);
+        this.toleranceNanos = emissionIntervalNanos * (Math.min(burst, permits) - 1);
+        this.clock = clock;
+        this.theoreticalArrival = new AtomicLong(clock.getAsLong());
+    }
+
+    // Returned by reserveSlot when no permit was reserved
+    public static final long NO_SLOT = Long.MIN_VALUE;
+
+    public boolean tryAcquire() {
+        return tryReserve(0) == 0;
+    }
+
+    /**
+     * Reserves a permit if it becomes available within {@code maxWaitNanos}.
+     *
+     * @return nanoseconds the caller must wait before using the permit, or
+     *         {@code -1} if no permit was reserved
+     */
+    public long tryReserve(long maxWaitNanos) {
+        long slot = reserveSlot(maxWaitNanos);
+        return slot == NO_SLOT ? -1 : Math.max(0, dueAt(slot) - clock.getAsLong());
+    }
+
+    /**
+     * Reserves a permit if it becomes available within {@code maxWaitNanos}.
+     *
+     * @return the slot the permit was given, which tells when it is due and
+     *         whether it can still be released, or {@link #NO_SLOT}
+     */
+    public long reserveSlot(long maxWaitNanos) {
+        while (true) {
+            long now = clock.getAsLong();
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, now);
+            if (start - toleranceNanos - now > maxWaitNanos) {
+                return NO_SLOT;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                return start + emissionIntervalNanos;
+            }
+        }
+    }
+
+    // Clock time from which the permit in this slot may be used
+    public long dueAt(long slot) {
+        return slot - emissionIntervalNanos - toleranceNanos;
+    }
+
+    /**
+     * Returns the permit in this slot if it was never used and nothing was
+     * reserved after it. A permit with later reservations behind it stays
+     * spent, so theirs never fall due any sooner.
+     *
+     * @return whether the permit was returned
+     */
+    public boolean releaseIfLast(long slot) {
+        long now = clock.getAsLong();
+        return theoreticalArrival.compareAndSet(slot, Math.max(now, slot - emissionIntervalNanos));
+    }
+}
@@ -0,0 +1,349 @@
+package com.puente.tradingapp.service.schedule;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.service.provider.BatchMarketDataProvider;
+import com.puente.tradingapp.service.provider.MarketDataProvider;
+import com.puente.tradingapp.service.provider.MarketDataRouter;
+import com.puente.tradingapp.service.provider.TrackedSymbol;
+import com.puente.tradingapp.service.provider.TrackedSymbol.Tier;
+import com.puente.tradingapp.service.ratelimit.RateLimiterRegistry;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshot;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshotCache;
+import com.puente.tradingapp.service.universe.InstrumentUniverse;
+import com.puente.tradingapp.util.FixedPoint;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Decides when each tracked symbol is next refreshed. Symbols wait in a
+ * {@link DelayQueue} ordered by due time; after every fetch a symbol is put
+ * back with a new delay.
+ *
+ * <p>The delay shares the primary provider's sustainable request rate among
+ * its symbols in proportion to their weight, so together they use about
+ * {@code quota-utilization} of the budget. A symbol's weight grows with its
+ * read demand (lookups and favorites) and with how much its price has been
+ * moving. A symbol costs as many requests as its provider may need per quote,
+ * or a fraction of one on a batching provider. Batched symbols are pulled
+ * forward to ride along when another symbol on the same provider comes due,
+ * if they are within a quarter of their own interval of being due.
+ *
+ * <p>A symbol joining the schedule is first due one interval after the
+ * quote already in the snapshot was fetched, so a restart doesn't refetch
+ * quotes that are still fresh.
+ */
+@Component
+public class RefreshScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshScheduler.class);
+
+    // How much of the previous demand is kept each time a symbol is rescheduled
+    private static final double DEMAND_DECAY = 0.5;
+
+    // Share of its interval a batched symbol may be refreshed early, so riding along adds at most a third more
+    private static final double PULL_FORWARD_FRACTION = 0.25;
+
+    @Autowired
+    private InstrumentUniverse universe;
+
+    @Autowired
+    private MarketDataRouter router;
+
+    @Autowired
+    private RateLimiterRegistry rateLimiters;
+
+    @Autowired
+    private QuoteSnapshotCache snapshotCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.market.refresh-interval-ms}")
+    private long hotMaxIntervalMs;
+
+    @Value("${app.market.universe.cold-refresh-interval-ms:3600000}")
+    private long coldMaxIntervalMs;
+
+    @Value("${app.market.scheduler.min-interval-ms:60000}")
+    private long minIntervalMs;
+
+    @Value("${app.market.scheduler.quota-utilization:0.8}")
+    private double quotaUtilization;
+
+    @Value("${app.market.scheduler.favorite-weight:5}")
+    private double favoriteWeight;
+
+    @Value("${app.market.scheduler.volatility-reference-pct:1.0}")
+    private double volatilityReferencePct;
+
+    private final DelayQueue<DueRefresh> queue = new DelayQueue<>();
+    private final Map<String, SymbolState> states = new ConcurrentHashMap<>();
+
+    // Guards syncing
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // Universe the states were last synced with, and the total weight per provider at that time
+    private List<TrackedSymbol> syncedUniverse;
+    private volatile Map<String, Double> providerWeights = Map.of();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("market.scheduler.queued", queue, DelayQueue::size)
+                .description("Symbols waiting for their next refresh")
+                .register(meterRegistry);
+    }
+
+    public void recordRead(String symbol) {
+        SymbolState state = states.get(symbol);
+        if (state != null) {
+            state.reads.increment();
+        }
+    }
+
+    // Volatility is a moving average of the absolute percent move between consecutive quotes
+    public void recordQuote(String symbol, BigDecimal price) {
+        SymbolState state = states.get(symbol);
+        if (state == null || price == null || price.signum() <= 0) {
+            return;
+        }
+        long scaled = FixedPoint.toScaled(price, FixedPoint.PRICE_SCALE);
+        long last = state.lastPrice;
+        if (last != FixedPoint.NULL && last != 0) {
+            double move = Math.abs((double) (scaled - last)) * 100 / last;
+            state.volatility = (state.volatility + move) / 2;
+        }
+        state.lastPrice = scaled;
+    }
+
+    /**
+     * Waits up to {@code maxWait} for a symbol to come due, then returns every
+     * symbol that is due, plus batch-provider symbols close enough to due
+     * that they can share the same request.
+     */
+    public List<TrackedSymbol> takeDue(Duration maxWait) throws InterruptedException {
+        syncUniverse();
+
+        DueRefresh first = queue.poll(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return List.of();
+        }
+
+        List<DueRefresh> due = new ArrayList<>();
+        due.add(first);
+        queue.drainTo(due);
+
+        Set<String> batchProviders = new HashSet<>();
+        for (DueRefresh refresh : due) {
+            if (refresh.state.batched) {
+                batchProviders.add(refresh.state.provider);
+            }
+        }
+        if (!batchProviders.isEmpty()) {
+            long now = System.nanoTime();
+            for (Iterator<DueRefresh> it = queue.iterator(); it.hasNext();) {
+                DueRefresh refresh = it.next();
+                long earlyNanos = TimeUnit.MILLISECONDS
+                        .toNanos((long) (refresh.state.intervalMs * PULL_FORWARD_FRACTION));
+                if (refresh.dueAtNanos - now <= earlyNanos && batchProviders.contains(refresh.state.provider)) {
+                    it.remove();
+                    due.add(refresh);
+                }
+            }
+        }
+
+        List<TrackedSymbol> symbols = new ArrayList<>(due.size());
+        for (DueRefresh refresh : due) {
+            // Entries left behind by symbols that have since left the universe are dropped
+            if (states.get(refresh.state.symbol.symbol()) == refresh.state) {
+                refresh.state.queued.set(false);
+                symbols.add(refresh.state.symbol);
+            }
+        }
+        return symbols;
+    }
+
+    public void reschedule(TrackedSymbol symbol) {
+        // A symbol that was dropped and re-added while in flight is already queued under its new state
+        SymbolState state = states.get(symbol.symbol());
+        if (state == null || !state.queued.compareAndSet(false, true)) {
+            return;
+        }
+
+        state.demand = state.demand * DEMAND_DECAY + state.reads.sumThenReset();
+        long intervalMs = intervalFor(state);
+        state.intervalMs = intervalMs;
+        state.dueAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        queue.add(new DueRefresh(state, state.dueAtNanos));
+        logger.debug("Next refresh of {} in {}s", symbol.symbol(), intervalMs / 1000);
+    }
+
+    // Time until the next quote of any symbol may be fetched
+    public Duration untilNextRefresh() {
+        DueRefresh next = queue.peek();
+        return next != null ? remaining(next.dueAtNanos) : Duration.ofMillis(hotMaxIntervalMs);
+    }
+
+    // Time until the symbol's quote may next be fetched; zero while it is being fetched or unknown
+    public Duration untilNextRefresh(String symbol) {
+        SymbolState state = states.get(symbol);
+        return state != null && state.queued.get() ? remaining(state.dueAtNanos) : Duration.ZERO;
+    }
+
+    private Duration remaining(long dueAtNanos) {
+        return Duration.ofNanos(Math.max(0, dueAtNanos - System.nanoTime()));
+    }
+
+    private long intervalFor(SymbolState state) {
+        long maxIntervalMs = state.symbol.tier() == Tier.HOT ? hotMaxIntervalMs : coldMaxIntervalMs;
+        double weight = weight(state);
+        double requestsPerMinute = state.provider != null
+                ? rateLimiters.forProvider(state.provider).getSustainedRequestsPerMinute() * quotaUtilization
+                : Double.POSITIVE_INFINITY;
+
+        double intervalMs;
+        if (Double.isInfinite(requestsPerMinute)) {
+            intervalMs = maxIntervalMs / weight;
+        } else {
+            // This symbol's share of the provider's rate is weight / total weight
+            double cost = state.batched ? 1.0 / state.batchSize : state.requestsPerQuote;
+            double totalWeight = providerWeights.getOrDefault(state.provider, weight);
+            intervalMs = Duration.ofMinutes(1).toMillis() * cost * totalWeight / (requestsPerMinute * weight);
+        }
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, (long) intervalMs));
+    }
+
+    private double weight(SymbolState state) {
+        double demand = state.demand + favoriteWeight * state.symbol.favorites();
+        return (1 + Math.log1p(demand)) * (1 + state.volatility / volatilityReferencePct);
+    }
+
+    // New symbols are due once their stored quote goes stale; symbols that left the universe are forgotten
+    private void syncUniverse() {
+        syncLock.lock();
+        try {
+            List<TrackedSymbol> current = universe.getSymbols();
+            List<SymbolState> added = new ArrayList<>();
+            if (current != syncedUniverse) {
+                Set<String> symbols = new HashSet<>();
+                for (TrackedSymbol symbol : current) {
+                    symbols.add(symbol.symbol());
+                    SymbolState state = states.get(symbol.symbol());
+                    if (state == null) {
+                        state = new SymbolState();
+                        states.put(symbol.symbol(), state);
+                        added.add(state);
+                    }
+                    state.symbol = symbol;
+                    MarketDataProvider provider = router.primaryFor(symbol).orElse(null);
+                    state.provider = provider != null ? provider.getName() : null;
+                    state.batched = provider != null && BatchMarketDataProvider.of(provider).isPresent();
+                    state.batchSize = provider != null ? provider.getCapabilities().maxBatchSize() : 1;
+                    state.requestsPerQuote = provider != null ? provider.getCapabilities().requestsPerQuote() : 1;
+                }
+                states.keySet().retainAll(symbols);
+                syncedUniverse = current;
+                logger.info("Scheduling refreshes for {} symbols", states.size());
+            }
+
+            Map<String, Double> weights = new HashMap<>();
+            for (SymbolState state : states.values()) {
+                if (state.provider != null) {
+                    weights.merge(state.provider, weight(state), Double::sum);
+                }
+            }
+            providerWeights = weights;
+
+            // Queued only now, so their intervals are worked out against the new provider weights
+            if (!added.isEmpty()) {
+                QuoteSnapshot snapshot = snapshotCache.current();
+                int fresh = 0;
+                for (SymbolState state : added) {
+                    Instrument stored = snapshot.findBySymbol(state.symbol.symbol()).orElse(null);
+                    state.dueAtNanos = initialDueAt(state, stored);
+                    if (state.dueAtNanos - System.nanoTime() > 0) {
+                        fresh++;
+                    }
+                    queue.add(new DueRefresh(state, state.dueAtNanos));
+                }
+                logger.info("{} of {} new symbols have a fresh stored quote", fresh, added.size());
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private long initialDueAt(SymbolState state, Instrument stored) {
+        long now = System.nanoTime();
+        state.intervalMs = intervalFor(state);
+        if (stored == null || stored.getLastUpdated() == null || stored.getCurrentPrice() == null) {
+            return now;
+        }
+        state.lastPrice = FixedPoint.toScaled(stored.getCurrentPrice(), FixedPoint.PRICE_SCALE);
+
+        // lastUpdated is written in local time by the ingestion pipeline
+        Duration age = Duration.between(stored.getLastUpdated(), LocalDateTime.now());
+        long remainingMs = state.intervalMs - Math.max(0, age.toMillis());
+        return remainingMs > 0 ? now + TimeUnit.MILLISECONDS.toNanos(remainingMs) : now;
+    }
+
+    private static final class SymbolState {
+        private final LongAdder reads = new LongAdder();
+        private final AtomicBoolean queued = new AtomicBoolean(true);
+        private volatile TrackedSymbol symbol;
+        private volatile String provider;
+        private volatile boolean batched;
+        private volatile int batchSize;
+        private volatile int requestsPerQuote = 1;
+        private volatile long intervalMs;
+        private volatile double demand;
+        private volatile double volatility;
+        private volatile long lastPrice = FixedPoint.NULL;
+        private volatile long dueAtNanos = System.nanoTime();
+    }
+
+    private static final class DueRefresh implements Delayed {
+        private final SymbolState state;
+        private final long dueAtNanos;
+
+        private DueRefresh(SymbolState state, long dueAtNanos) {
+            this.state = state;
+            this.dueAtNanos = dueAtNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((DueRefresh) other).dueAtNanos);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.puente.tradingapp.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.service.provider.TrackedSymbol;
+import com.puente.tradingapp.service.universe.InstrumentUniverse;
+
+/**
+ * Typeahead over the tracked universe. Symbols, names and the words within
+ * names are kept as upper-cased keys in one sorted array, so a prefix is a
+ * contiguous range found by binary search. Symbol matches rank above name
+ * matches, and within each the most favorited symbols come first.
+ *
+ * <p>The index follows the universe: when it changes, keys of symbols that
+ * are still tracked under the same name are kept in place and only the keys
+ * of new or renamed symbols are sorted and merged in.
+ */
+@Component
+public class InstrumentSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentSearchIndex.class);
+
+    private static final Comparator<Entry> BY_KEY = Comparator.comparing(Entry::key);
+
+    @Autowired
+    private InstrumentUniverse universe;
+
+    private volatile Index index = new Index(List.of(), new Entry[0], new Entry[0]);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /**
+     * Up to {@code limit} symbols whose ticker, name or a word of the name
+     * starts with {@code query}, ignoring case.
+     */
+    public List<TrackedSymbol> search(String query, int limit) {
+        Index current = sync();
+        String prefix = query.trim().toUpperCase(Locale.ROOT);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Never sized past what the index holds, however large the limit
+        int capacity = Math.min(limit, current.symbolKeys().length);
+        List<TrackedSymbol> results = new ArrayList<>(capacity);
+        collect(current.symbolKeys(), prefix, limit, results);
+        if (results.size() < limit) {
+            List<TrackedSymbol> byName = new ArrayList<>(capacity);
+            collect(current.nameKeys(), prefix, limit, byName);
+            for (TrackedSymbol symbol : byName) {
+                if (results.size() < limit && !results.contains(symbol)) {
+                    results.add(symbol);
+                }
+            }
+        }
+        return results;
+    }
+
+    // Adds the best matches in the prefix's range to results, keeping it ranked and free of duplicates
+    private static void collect(Entry[] keys, String prefix, int limit, List<TrackedSymbol> results) {
+        int from = lowerBound(keys, prefix);
+        for (int i = from; i < keys.length && keys[i].key().startsWith(prefix); i++) {
+            TrackedSymbol candidate = keys[i].symbol();
+            if (results.contains(candidate)) {
+                continue;
+            }
+
+            int position = results.size();
+            while (position > 0 && ranksBefore(candidate, results.get(position - 1), prefix)) {
+                position--;
+            }
+            if (position < limit) {
+                results.add(position, candidate);
+                if (results.size() > limit) {
+                    results.remove(limit);
+                }
+            }
+        }
+    }
+
+    // An exact ticker match comes first, then more favorites, then the shorter ticker
+    private static boolean ranksBefore(TrackedSymbol a, TrackedSymbol b, String prefix) {
+        boolean aExact = a.symbol().equalsIgnoreCase(prefix);
+        boolean bExact = b.symbol().equalsIgnoreCase(prefix);
+        if (aExact != bExact) {
+            return aExact;
+        }
+        if (a.favorites() != b.favorites()) {
+            return a.favorites() > b.favorites();
+        }
+        return a.symbol().length() < b.symbol().length();
+    }
+
+    private static int lowerBound(Entry[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].key().compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Index sync() {
+        Index current = index;
+        List<TrackedSymbol> symbols = universe.getSymbols();
+        if (current.universe() == symbols) {
+            return current;
+        }
+
+        // One rebuild per universe change; callers that waited for it pick up its result
+        rebuildLock.lock();
+        try {
+            current = index;
+            if (current.universe() != symbols) {
+                current = rebuild(current, symbols);
+                index = current;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+        return current;
+    }
+
+    private static Index rebuild(Index previous, List<TrackedSymbol> symbols) {
+        long start = System.nanoTime();
+        Map<String, TrackedSymbol> bySymbol = new HashMap<>(symbols.size() * 2);
+        for (TrackedSymbol symbol : symbols) {
+            bySymbol.put(symbol.symbol(), symbol);
+        }
+
+        // Symbols whose keys are already in the index; their entries pick up the new favorite counts
+        Map<String, TrackedSymbol> indexed = new HashMap<>();
+        for (Entry entry : previous.symbolKeys()) {
+            TrackedSymbol now = bySymbol.get(entry.symbol().symbol());
+            if (now != null && Objects.equals(now.name(), entry.symbol().name())) {
+                indexed.put(now.symbol(), now);
+            }
+        }
+
+        List<Entry> addedSymbolKeys = new ArrayList<>();
+        List<Entry> addedNameKeys = new ArrayList<>();
+        for (TrackedSymbol symbol : symbols) {
+            if (!indexed.containsKey(symbol.symbol())) {
+                addedSymbolKeys.add(new Entry(symbol.symbol().toUpperCase(Locale.ROOT), symbol));
+                addNameKeys(symbol, addedNameKeys);
+            }
+        }
+
+        Entry[] symbolKeys = merge(previous.symbolKeys(), indexed, addedSymbolKeys);
+        Entry[] nameKeys = merge(previous.nameKeys(), indexed, addedNameKeys);
+        logger.debug("Search index: {} kept, {} added, {} keys in {}us", indexed.size(), addedSymbolKeys.size(),
+                symbolKeys.length + nameKeys.length, (System.nanoTime() - start) / 1000);
+        return new Index(symbols, symbolKeys, nameKeys);
+    }
+
+    // The whole name and every word after the first, so "Coin" finds "USD Coin"
+    private static void addNameKeys(TrackedSymbol symbol, List<Entry> keys) {
+        if (symbol.name() == null || symbol.name().isBlank()) {
+            return;
+        }
+        String name = symbol.name().trim().toUpperCase(Locale.ROOT);
+        keys.add(new Entry(name, symbol));
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            if (i + 1 < name.length() && name.charAt(i + 1) != ' ') {
+                keys.add(new Entry(name.substring(i + 1), symbol));
+            }
+        }
+    }
+
+    // Merges the still-indexed old keys, which are already in order, with the sorted new ones
+    private static Entry[] merge(Entry[] previous, Map<String, TrackedSymbol> indexed, List<Entry> added) {
+        Entry[] sortedAdded = added.toArray(new Entry[0]);
+        Arrays.sort(sortedAdded, BY_KEY);
+
+        Entry[] merged = new Entry[previous.length + sortedAdded.length];
+        int size = 0;
+        int j = 0;
+        for (Entry entry : previous) {
+            TrackedSymbol now = indexed.get(entry.symbol().symbol());
+            if (now == null) {
+                continue;
+            }
+            while (j < sortedAdded.length && BY_KEY.compare(sortedAdded[j], entry) < 0) {
+                merged[size++] = sortedAdded[j++];
+            }
+            merged[size++] = new Entry(entry.key(), now);
+        }
+        while (j < sortedAdded.length) {
+            merged[size++] = sortedAdded[j++];
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    private record Entry(String key, TrackedSymbol symbol) {
+    }
+
+    private record Index(List<TrackedSymbol> universe, Entry[] symbolKeys, Entry[] nameKeys) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * A client's position in the change log: a snapshot version together with
+ * the epoch of the {@link QuoteSnapshotCache} that published it. Versions
+ * restart on every boot and each instance counts its own, so a version is
+ * only comparable with others from the same epoch.
+ */
+public record ChangeCursor(long epoch, long version) {
+
+    // The cursor is "<epoch in hex>:<version>", opaque to clients
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((Long.toHexString(epoch) + ":" + version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static ChangeCursor decode(String cursor) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = text.indexOf(':');
+            return new ChangeCursor(Long.parseUnsignedLong(text.substring(0, separator), 16),
+                    Long.parseLong(text.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.util.FixedPoint;
+import com.puente.tradingapp.util.IntSort;
+
+/**
+ * Sorted views over one {@link QuoteSnapshot}'s instruments, each built the
+ * first time its order is asked for as an array of slots. Orders and filters
+ * read the snapshot's {@link QuoteColumns}, and instruments are only built
+ * for the slots a page returns. Pages are keyset-paginated: the cursor
+ * holds the sort value and id of the last instrument returned, and the next
+ * page starts right after that position, even in a newer snapshot where the
+ * instrument has moved.
+ */
+public final class InstrumentIndex {
+
+    public enum SortField {
+        SYMBOL,
+        CURRENT_PRICE,
+        DAILY_CHANGE,
+        WEEKLY_CHANGE,
+        VOLUME
+    }
+
+    private final long version;
+    private final QuoteColumns columns;
+    private final Map<String, int[]> views = new ConcurrentHashMap<>();
+
+    InstrumentIndex(long version, QuoteColumns columns) {
+        this.version = version;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns up to {@code size} instruments matching the query in the given
+     * order, starting after {@code cursor}, or from the first one when the
+     * cursor is null.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public InstrumentPage page(InstrumentQuery query, SortField field, Direction direction, String cursor,
+            int size) {
+        boolean ascending = direction.isAscending();
+        int[] view = views.computeIfAbsent(field + "-" + direction, key -> sort(field, ascending));
+
+        Range dailyChange = Range.of(query.minDailyChange(), query.maxDailyChange(), FixedPoint.PERCENT_SCALE);
+        Range volume = Range.of(query.minVolume(), query.maxVolume());
+        Range sortedRange = field == SortField.DAILY_CHANGE ? dailyChange : field == SortField.VOLUME ? volume : null;
+
+        int from = cursor != null ? firstAfter(view, decode(cursor, field), field, ascending) : 0;
+
+        // A range on the sorted field bounds the scan on both ends
+        if (sortedRange != null && (ascending ? sortedRange.min() : sortedRange.max()) != FixedPoint.NULL) {
+            Position start = new Position(ascending ? sortedRange.min() : sortedRange.max(), null, Long.MIN_VALUE);
+            from = Math.max(from, firstAfter(view, start, field, ascending));
+        }
+
+        long[] values = column(field);
+        List<Instrument> page = new ArrayList<>(Math.min(size, view.length));
+        int last = -1;
+        for (int i = from; i < view.length && page.size() < size; i++) {
+            int slot = view[i];
+            if (sortedRange != null && sortedRange.isPast(values[slot], ascending)) {
+                return new InstrumentPage(version, page, null);
+            }
+            if (dailyChange.contains(columns.dailyChange[slot]) && volume.contains(columns.volume[slot])
+                    && query.matches(columns.types[slot], columns.symbols[slot], columns.names[slot])) {
+                page.add(columns.instrument(slot));
+                last = slot;
+            }
+        }
+
+        String nextCursor = page.size() == size ? encode(position(last, field)) : null;
+        return new InstrumentPage(version, page, nextCursor);
+    }
+
+    private int[] sort(SortField field, boolean ascending) {
+        // Laid out in id order first, so the stable sort leaves ties broken by id
+        int[] byId = columns.slotsInIdOrder();
+        if (field == SortField.SYMBOL) {
+            String[] symbols = columns.symbols;
+            IntSort.sort(byId, (a, b) -> ascending
+                    ? symbols[a].compareTo(symbols[b])
+                    : symbols[b].compareTo(symbols[a]));
+            return byId;
+        }
+
+        // Instruments without the value go last either way; the rest sort by the value, bit-inverted when descending
+        long[] values = column(field);
+        long[] keys = new long[values.length];
+        int present = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != FixedPoint.NULL) {
+                keys[slot] = ascending ? values[slot] : ~values[slot];
+                present++;
+            }
+        }
+        int[] view = new int[byId.length];
+        int next = 0;
+        int nextMissing = present;
+        for (int slot : byId) {
+            if (values[slot] != FixedPoint.NULL) {
+                view[next++] = slot;
+            } else {
+                view[nextMissing++] = slot;
+            }
+        }
+        IntSort.sort(view, 0, present, keys);
+        return view;
+    }
+
+    private int compare(int slot, Position position, SortField field, boolean ascending) {
+        return field == SortField.SYMBOL
+                ? compare(columns.symbols[slot], columns.ids[slot], position.symbol(), position.id(), ascending)
+                : compare(column(field)[slot], columns.ids[slot], position.value(), position.id(), ascending);
+    }
+
+    // Ties are broken by id
+    private static int compare(String symbol, long id, String otherSymbol, long otherId, boolean ascending) {
+        int result = ascending ? symbol.compareTo(otherSymbol) : otherSymbol.compareTo(symbol);
+        return result != 0 ? result : Long.compare(id, otherId);
+    }
+
+    // Instruments without the value sort last either way; ties are broken by id
+    private static int compare(long value, long id, long otherValue, long otherId, boolean ascending) {
+        int result;
+        if (value == FixedPoint.NULL || otherValue == FixedPoint.NULL) {
+            result = Boolean.compare(value == FixedPoint.NULL, otherValue == FixedPoint.NULL);
+        } else {
+            result = ascending ? Long.compare(value, otherValue) : Long.compare(otherValue, value);
+        }
+        return result != 0 ? result : Long.compare(id, otherId);
+    }
+
+    // Index of the first slot in the view ordered after the position
+    private int firstAfter(int[] view, Position position, SortField field, boolean ascending) {
+        int low = 0;
+        int high = view.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(view[mid], position, field, ascending) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Position position(int slot, SortField field) {
+        return field == SortField.SYMBOL
+                ? new Position(FixedPoint.NULL, columns.symbols[slot], columns.ids[slot])
+                : new Position(column(field)[slot], null, columns.ids[slot]);
+    }
+
+    private long[] column(SortField field) {
+        return switch (field) {
+            case CURRENT_PRICE -> columns.currentPrice;
+            case DAILY_CHANGE -> columns.dailyChange;
+            case WEEKLY_CHANGE -> columns.weeklyChange;
+            case VOLUME -> columns.volume;
+            case SYMBOL -> columns.ids;
+        };
+    }
+
+    // The cursor is "<id>:<sort value>", the value being the symbol or the scaled number, empty when missing
+    private static String encode(Position position) {
+        String value = position.symbol() != null ? position.symbol()
+                : position.value() == FixedPoint.NULL ? "" : Long.toString(position.value());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((position.id() + ":" + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor, SortField field) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = text.indexOf(':');
+            long id = Long.parseLong(text.substring(0, separator));
+            String value = text.substring(separator + 1);
+            if (field == SortField.SYMBOL) {
+                return new Position(FixedPoint.NULL, value, id);
+            }
+            return new Position(value.isEmpty() ? FixedPoint.NULL : Long.parseLong(value), null, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    // A place in a view: the sort value (a symbol, or a scaled number) and id of an instrument
+    private record Position(long value, String symbol, long id) {
+    }
+
+    // Inclusive bounds as scaled values; NULL leaves that end open
+    private record Range(long min, long max) {
+
+        static Range of(BigDecimal min, BigDecimal max, int scale) {
+            // Rounded inwards, so a bound with more decimals than the column never admits a value outside it
+            return new Range(FixedPoint.toScaled(min, scale, RoundingMode.CEILING),
+                    FixedPoint.toScaled(max, scale, RoundingMode.FLOOR));
+        }
+
+        static Range of(Long min, Long max) {
+            return new Range(min != null ? min : FixedPoint.NULL, max != null ? max : FixedPoint.NULL);
+        }
+
+        boolean contains(long value) {
+            if (min == FixedPoint.NULL && max == FixedPoint.NULL) {
+                return true;
+            }
+            return value != FixedPoint.NULL && (min == FixedPoint.NULL || value >= min)
+                    && (max == FixedPoint.NULL || value <= max);
+        }
+
+        // Whether a value, and so every one after it in the view, is beyond the range's far end
+        boolean isPast(long value, boolean ascending) {
+            long end = ascending ? max : min;
+            if (end == FixedPoint.NULL) {
+                return false;
+            }
+            return value == FixedPoint.NULL || (ascending ? value > end : value < end);
+        }
+    }
+}
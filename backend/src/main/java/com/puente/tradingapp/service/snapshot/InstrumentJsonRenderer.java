@@ -0,0 +1,100 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.payload.response.InstrumentResponse;
+import com.puente.tradingapp.util.LongIdSet;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Serializes each published snapshot's instrument list once, with the
+ * application's {@link ObjectMapper}, so list requests only copy bytes.
+ */
+@Component
+public class InstrumentJsonRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentJsonRenderer.class);
+    private static final byte[] FAVORITE_FIELD = ",\"isFavorite\":".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<Rendered> latest = new AtomicReference<>();
+    private ObjectWriter segmentWriter;
+
+    // The same mapper, minus isFavorite, so everything else is written exactly as the response object would be
+    @PostConstruct
+    public void createSegmentWriter() {
+        segmentWriter = objectMapper.copy()
+                .addMixIn(InstrumentResponse.class, WithoutFavorite.class)
+                .writerFor(InstrumentResponse.class);
+    }
+
+    // Rendered on the publishing thread, before the first request for the new snapshot arrives
+    @EventListener
+    public void onSnapshotPublished(QuoteSnapshotPublishedEvent event) {
+        render(event.current());
+    }
+
+    public RenderedInstruments render(QuoteSnapshot snapshot) {
+        Rendered rendered = latest.get();
+        if (rendered != null && rendered.snapshot == snapshot) {
+            return rendered.instruments;
+        }
+
+        long start = System.nanoTime();
+        RenderedInstruments instruments = renderInstruments(snapshot);
+        latest.set(new Rendered(snapshot, instruments));
+        logger.debug("Rendered snapshot v{} ({} bytes, {} gzipped) in {}ms", snapshot.getVersion(),
+                instruments.getJson().length, instruments.getGzip().length, (System.nanoTime() - start) / 1_000_000);
+        return instruments;
+    }
+
+    private RenderedInstruments renderInstruments(QuoteSnapshot snapshot) {
+        QuoteColumns columns = snapshot.getColumns();
+        long[] ids = new long[columns.size()];
+        byte[][] segments = new byte[columns.size()][];
+
+        try {
+            for (int i = 0; i < columns.size(); i++) {
+                Instrument instrument = columns.instrument(i);
+                ids[i] = instrument.getId() != null ? instrument.getId() : 0;
+
+                // Written without isFavorite, then reopened so the flag can be appended as the last field
+                byte[] json = segmentWriter.writeValueAsBytes(InstrumentResponse.fromInstrument(instrument, false));
+
+                byte[] segment = Arrays.copyOf(json, json.length - 1 + FAVORITE_FIELD.length);
+                System.arraycopy(FAVORITE_FIELD, 0, segment, json.length - 1, FAVORITE_FIELD.length);
+                segments[i] = segment;
+            }
+
+            byte[] json = RenderedInstruments.join(ids, segments, LongIdSet.EMPTY);
+            return new RenderedInstruments(snapshot.getVersion(), ids, segments, json,
+                    RenderedInstruments.gzip(ids, segments, LongIdSet.EMPTY));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @JsonIgnoreProperties("isFavorite")
+    private abstract static class WithoutFavorite {
+    }
+
+    private record Rendered(QuoteSnapshot snapshot, RenderedInstruments instruments) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.util.List;
+
+import com.puente.tradingapp.model.Instrument;
+
+/**
+ * One page of instruments from a {@link QuoteSnapshot}. {@code nextCursor} is
+ * null on the last page.
+ */
+public record InstrumentPage(long version, List<Instrument> instruments, String nextCursor) {
+}
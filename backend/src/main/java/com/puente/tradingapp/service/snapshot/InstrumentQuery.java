@@ -0,0 +1,31 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+
+/**
+ * Filters for a page of instruments. Every criterion is optional; ranges are
+ * inclusive, and an instrument without the value never matches a range. The
+ * ranges are checked by {@link InstrumentIndex} against the quote columns.
+ */
+public record InstrumentQuery(InstrumentType type, String prefix, BigDecimal minDailyChange,
+        BigDecimal maxDailyChange, Long minVolume, Long maxVolume) {
+
+    public InstrumentQuery {
+        prefix = prefix == null || prefix.isBlank() ? null : prefix.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Type and prefix only
+    public boolean matches(InstrumentType instrumentType, String symbol, String name) {
+        if (type != null && instrumentType != type) {
+            return false;
+        }
+        return prefix == null || startsWith(symbol) || startsWith(name);
+    }
+
+    private boolean startsWith(String value) {
+        return value != null && value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+}
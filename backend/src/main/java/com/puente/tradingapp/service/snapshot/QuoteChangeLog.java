@@ -0,0 +1,87 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.model.Instrument;
+
+/**
+ * Remembers which symbols changed in each of the last
+ * {@code app.market.changes.retention} snapshot versions, so a client that
+ * holds a recent cursor can fetch just the instruments that changed since.
+ */
+@Component
+public class QuoteChangeLog {
+
+    @Value("${app.market.changes.retention:1024}")
+    private int retention;
+
+    // Written by whichever thread publishes, from inside QuoteSnapshotCache's publishLock, so one at a time and the
+    // monitor is never contended; readers take the latest immutable state
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private volatile State state;
+
+    @EventListener
+    public synchronized void onSnapshotPublished(QuoteSnapshotPublishedEvent event) {
+        QuoteSnapshot previous = event.previous();
+        QuoteSnapshot current = event.current();
+
+        // A snapshot loaded on demand isn't published, so the chain restarts after a gap
+        if (!entries.isEmpty() && entries.peekLast().version() != previous.getVersion()) {
+            entries.clear();
+        }
+        if (entries.isEmpty() && previous.isEmpty()) {
+            state = new State(current, current.getVersion(), List.of());
+            return;
+        }
+
+        List<String> symbols = current.changesSince(previous).stream().map(Instrument::getSymbol).toList();
+        entries.addLast(new Entry(previous.getVersion(), current.getVersion(), symbols));
+        while (entries.size() > retention) {
+            entries.removeFirst();
+        }
+        state = new State(current, entries.peekFirst().previousVersion(), List.copyOf(entries));
+    }
+
+    /**
+     * Instruments changed after {@code since}, with their latest quotes.
+     * Empty when the cursor is from another epoch (an earlier boot or another
+     * instance), older than the log or newer than the latest snapshot, or
+     * nothing has been published yet.
+     */
+    public Optional<QuoteChanges> changesSince(ChangeCursor since) {
+        State current = state;
+        if (current == null || since.epoch() != current.snapshot().getEpoch()
+                || since.version() < current.baseVersion() || since.version() > current.snapshot().getVersion()) {
+            return Optional.empty();
+        }
+
+        Set<String> symbols = new LinkedHashSet<>();
+        for (Entry entry : current.entries()) {
+            if (entry.version() > since.version()) {
+                symbols.addAll(entry.symbols());
+            }
+        }
+
+        List<Instrument> changed = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            current.snapshot().findBySymbol(symbol).ifPresent(changed::add);
+        }
+        return Optional.of(new QuoteChanges(current.snapshot().getCursor(), false, changed));
+    }
+
+    private record Entry(long previousVersion, long version, List<String> symbols) {
+    }
+
+    private record State(QuoteSnapshot snapshot, long baseVersion, List<Entry> entries) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.util.List;
+
+import com.puente.tradingapp.model.Instrument;
+
+/**
+ * Instruments whose quotes changed after a client's cursor, as of
+ * {@code cursor}. When the cursor could not be served from the change log,
+ * {@code full} is set and {@code instruments} holds the whole snapshot.
+ */
+public record QuoteChanges(ChangeCursor cursor, boolean full, List<Instrument> instruments) {
+
+    public static QuoteChanges full(QuoteSnapshot snapshot) {
+        return new QuoteChanges(snapshot.getCursor(), true, snapshot.toInstruments());
+    }
+}
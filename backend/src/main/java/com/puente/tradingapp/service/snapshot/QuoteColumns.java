@@ -0,0 +1,256 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.util.FixedPoint;
+import com.puente.tradingapp.util.IntSort;
+
+/**
+ * The storage of a {@link QuoteSnapshot}: every instrument as one slot across
+ * flat columns. Quote values are fixed-point {@code long}s, prices at
+ * {@link FixedPoint#PRICE_SCALE} and changes at {@link FixedPoint#PERCENT_SCALE},
+ * with {@link FixedPoint#NULL} for a missing value. Each decimal also keeps
+ * the scale it was read with, so an {@link Instrument} built back from a slot
+ * renders exactly like the row it came from. Sorting, filtering, lookups and
+ * change detection only read the columns; instruments are built for the
+ * slots a response returns.
+ */
+public final class QuoteColumns {
+
+    static final QuoteColumns EMPTY = new QuoteColumns(List.of());
+
+    // Decimal fields, as offsets into decimalScales
+    private static final int CURRENT_PRICE = 0;
+    private static final int DAILY_CHANGE = 1;
+    private static final int WEEKLY_CHANGE = 2;
+    private static final int DAILY_HIGH = 3;
+    private static final int DAILY_LOW = 4;
+    private static final int DECIMALS = 5;
+
+    final long[] ids;
+    final String[] symbols;
+    final String[] names;
+    final InstrumentType[] types;
+    final long[] currentPrice;
+    final long[] dailyChange;
+    final long[] weeklyChange;
+    final long[] dailyHigh;
+    final long[] dailyLow;
+    final long[] volume;
+    final long[] updatedAtMicros;
+    private final byte[] decimalScales;
+
+    // Instrument ids in ascending order and the slot each one is in, then every slot in symbol order
+    private final long[] sortedIds;
+    private final int[] sortedSlots;
+    private final int[] symbolOrder;
+
+    QuoteColumns(List<Instrument> instruments) {
+        this(null, instruments);
+    }
+
+    // The base's slots with each update written over its symbol's slot, or appended when the symbol is new
+    private QuoteColumns(QuoteColumns base, Collection<Instrument> updates) {
+        int baseSize = base != null ? base.size() : 0;
+        int[] targets = new int[updates.size()];
+        Map<String, Integer> appended = new HashMap<>();
+        int size = baseSize;
+        int i = 0;
+        for (Instrument instrument : updates) {
+            int slot = base != null ? base.slotOf(instrument.getSymbol()) : -1;
+            if (slot < 0) {
+                Integer added = appended.putIfAbsent(instrument.getSymbol(), size);
+                slot = added != null ? added : size++;
+            }
+            targets[i++] = slot;
+        }
+
+        // Overwriting slots in place keeps every symbol where it was, so unless an id changed or a symbol was
+        // added the key columns and the lookups over them are shared with the base
+        boolean sameKeys = base != null && size == baseSize;
+        i = 0;
+        for (Instrument instrument : updates) {
+            sameKeys = sameKeys && base.ids[targets[i++]] == id(instrument);
+        }
+
+        ids = sameKeys ? base.ids : base != null ? Arrays.copyOf(base.ids, size) : new long[size];
+        symbols = sameKeys ? base.symbols : base != null ? Arrays.copyOf(base.symbols, size) : new String[size];
+        names = base != null ? Arrays.copyOf(base.names, size) : new String[size];
+        types = base != null ? Arrays.copyOf(base.types, size) : new InstrumentType[size];
+        currentPrice = base != null ? Arrays.copyOf(base.currentPrice, size) : new long[size];
+        dailyChange = base != null ? Arrays.copyOf(base.dailyChange, size) : new long[size];
+        weeklyChange = base != null ? Arrays.copyOf(base.weeklyChange, size) : new long[size];
+        dailyHigh = base != null ? Arrays.copyOf(base.dailyHigh, size) : new long[size];
+        dailyLow = base != null ? Arrays.copyOf(base.dailyLow, size) : new long[size];
+        volume = base != null ? Arrays.copyOf(base.volume, size) : new long[size];
+        updatedAtMicros = base != null ? Arrays.copyOf(base.updatedAtMicros, size) : new long[size];
+        decimalScales = base != null ? Arrays.copyOf(base.decimalScales, size * DECIMALS) : new byte[size * DECIMALS];
+
+        i = 0;
+        for (Instrument instrument : updates) {
+            write(targets[i++], instrument, !sameKeys);
+        }
+
+        if (sameKeys) {
+            sortedIds = base.sortedIds;
+            sortedSlots = base.sortedSlots;
+            symbolOrder = base.symbolOrder;
+            return;
+        }
+
+        long[] packed = packIds(ids);
+        sortedIds = new long[packed.length];
+        sortedSlots = new int[packed.length];
+        for (int j = 0; j < packed.length; j++) {
+            sortedIds[j] = packed[j] >>> 32;
+            sortedSlots[j] = (int) packed[j];
+        }
+
+        symbolOrder = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            symbolOrder[slot] = slot;
+        }
+        IntSort.sort(symbolOrder, (a, b) -> symbols[a].compareTo(symbols[b]));
+    }
+
+    // A copy with these instruments replaced (by symbol) or added; the slots of the others don't move
+    QuoteColumns withUpdates(Collection<Instrument> updates) {
+        return new QuoteColumns(this, updates);
+    }
+
+    // Key columns are left alone when they're shared with the base, which already holds the same values
+    private void write(int slot, Instrument instrument, boolean keys) {
+        if (keys) {
+            ids[slot] = id(instrument);
+            symbols[slot] = instrument.getSymbol();
+        }
+        names[slot] = instrument.getName();
+        types[slot] = instrument.getType();
+        currentPrice[slot] = decimal(slot, CURRENT_PRICE, instrument.getCurrentPrice(), FixedPoint.PRICE_SCALE);
+        dailyChange[slot] = decimal(slot, DAILY_CHANGE, instrument.getDailyChange(), FixedPoint.PERCENT_SCALE);
+        weeklyChange[slot] = decimal(slot, WEEKLY_CHANGE, instrument.getWeeklyChange(), FixedPoint.PERCENT_SCALE);
+        dailyHigh[slot] = decimal(slot, DAILY_HIGH, instrument.getDailyHigh(), FixedPoint.PRICE_SCALE);
+        dailyLow[slot] = decimal(slot, DAILY_LOW, instrument.getDailyLow(), FixedPoint.PRICE_SCALE);
+        volume[slot] = instrument.getVolume() != null ? instrument.getVolume() : FixedPoint.NULL;
+        updatedAtMicros[slot] = micros(instrument.getLastUpdated());
+    }
+
+    private static long id(Instrument instrument) {
+        return instrument.getId() != null ? instrument.getId() : FixedPoint.NULL;
+    }
+
+    private long decimal(int slot, int field, BigDecimal value, int scale) {
+        int kept = value != null ? Math.max(0, Math.min(value.scale(), scale)) : 0;
+        decimalScales[slot * DECIMALS + field] = (byte) kept;
+        return FixedPoint.toScaled(value, scale);
+    }
+
+    // Database ids fit in 32 bits, so each (id, slot) pair is packed into one long and sorted without boxing
+    private static long[] packIds(long[] ids) {
+        long[] packed = new long[ids.length];
+        int size = 0;
+        for (int slot = 0; slot < ids.length; slot++) {
+            // Instruments that were never saved have no id and can't be looked up
+            if (ids[slot] == FixedPoint.NULL) {
+                continue;
+            }
+            if (ids[slot] < 0 || ids[slot] > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Instrument id " + ids[slot] + " does not fit in the snapshot's index");
+            }
+            packed[size++] = ids[slot] << 32 | slot;
+        }
+        packed = Arrays.copyOf(packed, size);
+        Arrays.sort(packed);
+        return packed;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Slot of the instrument with this id, or -1
+    public int slotOf(long id) {
+        int i = Arrays.binarySearch(sortedIds, id);
+        return i >= 0 ? sortedSlots[i] : -1;
+    }
+
+    // Every slot, ordered by id; instruments without one come first, as NULL is the lowest long
+    int[] slotsInIdOrder() {
+        int[] slots = new int[size()];
+        int next = 0;
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] == FixedPoint.NULL) {
+                slots[next++] = slot;
+            }
+        }
+        System.arraycopy(sortedSlots, 0, slots, next, sortedSlots.length);
+        return slots;
+    }
+
+    // Slot of the instrument with this symbol, or -1
+    public int slotOf(String symbol) {
+        int low = 0;
+        int high = symbolOrder.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int result = symbols[symbolOrder[mid]].compareTo(symbol);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return symbolOrder[mid];
+            }
+        }
+        return -1;
+    }
+
+    // Builds the instrument in a slot; a detached copy, not the entity it was read from
+    public Instrument instrument(int slot) {
+        return Instrument.builder()
+                .id(ids[slot] != FixedPoint.NULL ? ids[slot] : null)
+                .symbol(symbols[slot])
+                .name(names[slot])
+                .type(types[slot])
+                .currentPrice(toDecimal(currentPrice, slot, CURRENT_PRICE, FixedPoint.PRICE_SCALE))
+                .dailyChange(toDecimal(dailyChange, slot, DAILY_CHANGE, FixedPoint.PERCENT_SCALE))
+                .weeklyChange(toDecimal(weeklyChange, slot, WEEKLY_CHANGE, FixedPoint.PERCENT_SCALE))
+                .dailyHigh(toDecimal(dailyHigh, slot, DAILY_HIGH, FixedPoint.PRICE_SCALE))
+                .dailyLow(toDecimal(dailyLow, slot, DAILY_LOW, FixedPoint.PRICE_SCALE))
+                .volume(volume[slot] != FixedPoint.NULL ? volume[slot] : null)
+                .lastUpdated(dateTime(updatedAtMicros[slot]))
+                .build();
+    }
+
+    private BigDecimal toDecimal(long[] column, int slot, int field, int scale) {
+        BigDecimal value = FixedPoint.toDecimal(column[slot], scale);
+        // Only rounds for a value that was saturated on the way in
+        return value != null ? value.setScale(decimalScales[slot * DECIMALS + field], RoundingMode.HALF_UP) : null;
+    }
+
+    // Timestamps are kept to the microsecond, the precision PostgreSQL stores them with
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return FixedPoint.NULL;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        if (micros == FixedPoint.NULL) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
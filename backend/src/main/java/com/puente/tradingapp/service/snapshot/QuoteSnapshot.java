@@ -0,0 +1,94 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.puente.tradingapp.model.Instrument;
+
+/**
+ * Immutable view of every instrument quote as of one ingestion cycle. A new
+ * snapshot is built per publish and swapped in atomically, so readers never
+ * lock and never see a half-applied refresh. The quotes live in
+ * {@link QuoteColumns}; an {@link Instrument} is only built when a caller
+ * asks for one.
+ */
+public final class QuoteSnapshot {
+
+    static final QuoteSnapshot EMPTY = new QuoteSnapshot(0, 0, Instant.EPOCH, QuoteColumns.EMPTY);
+
+    private final long epoch;
+    private final long version;
+    private final Instant publishedAt;
+    private final QuoteColumns columns;
+    private final InstrumentIndex index;
+
+    QuoteSnapshot(long epoch, long version, Instant publishedAt, QuoteColumns columns) {
+        this.epoch = epoch;
+        this.version = version;
+        this.publishedAt = publishedAt;
+        this.columns = columns;
+        this.index = new InstrumentIndex(version, columns);
+    }
+
+    // Identifies the cache that published this snapshot; versions from different epochs aren't comparable
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ChangeCursor getCursor() {
+        return new ChangeCursor(epoch, version);
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    // Builds every instrument, in slot order; for the rare callers that need all of them as entities
+    public List<Instrument> toInstruments() {
+        List<Instrument> instruments = new ArrayList<>(columns.size());
+        for (int slot = 0; slot < columns.size(); slot++) {
+            instruments.add(columns.instrument(slot));
+        }
+        return instruments;
+    }
+
+    // Sorted views are built lazily, so snapshots that are never paged through cost nothing extra
+    public InstrumentIndex getIndex() {
+        return index;
+    }
+
+    public Optional<Instrument> findBySymbol(String symbol) {
+        int slot = columns.slotOf(symbol);
+        return slot >= 0 ? Optional.of(columns.instrument(slot)) : Optional.empty();
+    }
+
+    public QuoteColumns getColumns() {
+        return columns;
+    }
+
+    // Instruments that are new or whose quote was updated relative to an older snapshot
+    public List<Instrument> changesSince(QuoteSnapshot previous) {
+        List<Instrument> changed = new ArrayList<>();
+        for (int slot = 0; slot < columns.size(); slot++) {
+            int before = previous.columns.slotOf(columns.ids[slot]);
+            if (before < 0 || previous.columns.updatedAtMicros[before] != columns.updatedAtMicros[slot]) {
+                changed.add(columns.instrument(slot));
+            }
+        }
+        return changed;
+    }
+
+    public boolean isEmpty() {
+        return version == 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.model.Instrument;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the current {@link QuoteSnapshot}. The ingestion pipeline publishes a
+ * new snapshot after each refresh; read endpoints are served from it without
+ * touching the database.
+ */
+@Component
+public class QuoteSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteSnapshotCache.class);
+
+    private final AtomicReference<QuoteSnapshot> current = new AtomicReference<>(QuoteSnapshot.EMPTY);
+    private final AtomicLong versions = new AtomicLong();
+    // Versions restart with every cache, and every instance has its own
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Publishing is serialized, so each snapshot builds on the one before it and listeners see versions in order
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("market.snapshot.version", this, cache -> cache.current.get().getVersion())
+                .description("Version of the published quote snapshot")
+                .register(meterRegistry);
+        Gauge.builder("market.snapshot.age", this, cache -> cache.age().toMillis() / 1000.0)
+                .description("Seconds since the quote snapshot was published")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("market.snapshot.size", this, cache -> cache.current.get().size())
+                .description("Instruments in the quote snapshot")
+                .register(meterRegistry);
+        FunctionCounter.builder("market.snapshot.reads", hits, LongAdder::sum)
+                .description("Reads served from the quote snapshot")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("market.snapshot.reads", misses, LongAdder::sum)
+                .description("Reads served from the quote snapshot")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public QuoteSnapshot publish(List<Instrument> instruments) {
+        publishLock.lock();
+        try {
+            return publish(new QuoteColumns(instruments));
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // Publishes the current snapshot with these instruments replaced (by symbol) or added
+    public QuoteSnapshot publishUpdates(Collection<Instrument> updated) {
+        publishLock.lock();
+        try {
+            return publish(current.get().getColumns().withUpdates(updated));
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private QuoteSnapshot publish(QuoteColumns columns) {
+        QuoteSnapshot snapshot = new QuoteSnapshot(epoch, versions.incrementAndGet(), Instant.now(), columns);
+        QuoteSnapshot previous = current.getAndSet(snapshot);
+        logger.info("Published quote snapshot v{} with {} instruments", snapshot.getVersion(), snapshot.size());
+
+        eventPublisher.publishEvent(new QuoteSnapshotPublishedEvent(previous, snapshot));
+        return snapshot;
+    }
+
+    // Returns the current snapshot, loading the first one on demand if nothing has been published yet
+    public QuoteSnapshot get(Supplier<List<Instrument>> loader) {
+        QuoteSnapshot snapshot = current.get();
+        if (!snapshot.isEmpty()) {
+            hits.increment();
+            return snapshot;
+        }
+
+        misses.increment();
+        QuoteSnapshot loaded = new QuoteSnapshot(epoch, versions.incrementAndGet(), Instant.now(),
+                new QuoteColumns(loader.get()));
+        return current.compareAndSet(QuoteSnapshot.EMPTY, loaded) ? loaded : current.get();
+    }
+
+    public QuoteSnapshot current() {
+        return current.get();
+    }
+
+    public Duration age() {
+        QuoteSnapshot snapshot = current.get();
+        return snapshot.isEmpty() ? Duration.ZERO : Duration.between(snapshot.getPublishedAt(), Instant.now());
+    }
+}
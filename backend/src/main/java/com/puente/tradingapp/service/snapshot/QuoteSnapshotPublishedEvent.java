@@ -0,0 +1,7 @@
+package com.puente.tradingapp.service.snapshot;
+
+/**
+ * Published after a new {@link QuoteSnapshot} replaces the previous one.
+ */
+public record QuoteSnapshotPublishedEvent(QuoteSnapshot previous, QuoteSnapshot current) {
+}
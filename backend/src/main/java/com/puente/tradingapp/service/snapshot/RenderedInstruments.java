@@ -0,0 +1,107 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import com.puente.tradingapp.util.LongIdSet;
+
+/**
+ * The instrument list of one {@link QuoteSnapshot}, already serialized. Each
+ * instrument is kept as the UTF-8 JSON of its response object up to the
+ * {@code "isFavorite":} value, so a user's list is just those segments with
+ * {@code true}/{@code false} appended. The list without favorites is kept
+ * whole, plain and gzipped, and is shared by every request that needs it;
+ * a list with favorites is compressed per request.
+ */
+public final class RenderedInstruments {
+
+    private static final byte[] TRUE = "true}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "false}".getBytes(StandardCharsets.UTF_8);
+
+    private final long version;
+    private final long[] ids;
+    private final byte[][] segments;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    RenderedInstruments(long version, long[] ids, byte[][] segments, byte[] json, byte[] gzip) {
+        this.version = version;
+        this.ids = ids;
+        this.segments = segments;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // The list with no favorites; callers must not modify it
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public byte[] toJson(LongIdSet favoriteIds) {
+        return favoriteIds.isEmpty() ? json : join(ids, segments, favoriteIds);
+    }
+
+    public byte[] toGzip(LongIdSet favoriteIds) {
+        if (favoriteIds.isEmpty()) {
+            return gzip;
+        }
+        try {
+            return gzip(ids, segments, favoriteIds);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Streams the segments straight into the compressor, without joining them first
+    static byte[] gzip(long[] ids, byte[][] segments, LongIdSet favoriteIds) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(segments.length * 64);
+        try (OutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write('[');
+            for (int i = 0; i < segments.length; i++) {
+                if (i > 0) {
+                    gzip.write(',');
+                }
+                gzip.write(segments[i]);
+                gzip.write(favoriteIds.contains(ids[i]) ? TRUE : FALSE);
+            }
+            gzip.write(']');
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] join(long[] ids, byte[][] segments, LongIdSet favoriteIds) {
+        int size = 2 + Math.max(0, segments.length - 1);
+        for (int i = 0; i < segments.length; i++) {
+            size += segments[i].length + (favoriteIds.contains(ids[i]) ? TRUE.length : FALSE.length);
+        }
+
+        byte[] out = new byte[size];
+        int pos = 0;
+        out[pos++] = '[';
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                out[pos++] = ',';
+            }
+            System.arraycopy(segments[i], 0, out, pos, segments[i].length);
+            pos += segments[i].length;
+
+            byte[] flag = favoriteIds.contains(ids[i]) ? TRUE : FALSE;
+            System.arraycopy(flag, 0, out, pos, flag.length);
+            pos += flag.length;
+        }
+        out[pos] = ']';
+        return out;
+    }
+}
@@ -0,0 +1,223 @@
+package com.puente.tradingapp.service.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.payload.response.InstrumentResponse;
+import com.puente.tradingapp.service.FavoriteService;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshotPublishedEvent;
+import com.puente.tradingapp.util.LongIdSet;
+import com.puente.tradingapp.util.ThreadFactories;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes changed quotes to Server-Sent Events subscribers. Connections are
+ * parked as async servlet requests, so an idle subscriber holds no thread.
+ *
+ * <p>A single fan-out thread builds each subscriber's payload and queues it
+ * without blocking; each subscriber's queue is written out by a sender task
+ * of its own, so one slow connection never delays the others. A subscriber
+ * that falls {@code app.market.stream.queue-size} events behind is
+ * disconnected and has to reconnect. Favorites are resolved when the stream
+ * is opened, so a favorites change applies from the next connection.
+ */
+@Service
+public class QuoteStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteStreamService.class);
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.market.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${app.market.stream.queue-size:16}")
+    private int queueSize;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService fanOutExecutor = Executors
+            .newSingleThreadExecutor(new CustomizableThreadFactory("quote-stream-"));
+
+    // Runs each subscriber's sends; only subscribers with queued events occupy a thread
+    private ExecutorService senderExecutor;
+
+    private Counter dropped;
+
+    @PostConstruct
+    public void start() {
+        ThreadFactory threadFactory = ThreadFactories.named("quote-stream-sender-", virtualThreads);
+        senderExecutor = virtualThreads ? Executors.newThreadPerTaskExecutor(threadFactory)
+                : Executors.newCachedThreadPool(threadFactory);
+
+        Gauge.builder("market.stream.subscribers", subscribers, List::size)
+                .description("Connected quote stream subscribers")
+                .register(meterRegistry);
+        dropped = Counter.builder("market.stream.dropped")
+                .description("Quote stream subscribers disconnected for falling behind")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+        senderExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    public SseEmitter subscribe(Long userId, boolean favoritesOnly) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        LongIdSet favoriteIds = userId != null ? favoriteService.getFavoriteInstrumentIds(userId) : LongIdSet.EMPTY;
+        Subscriber subscriber = new Subscriber(emitter, favoriteIds, favoritesOnly, queueSize);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        logger.debug("Quote stream subscriber added for user {} (favorites only: {})", userId, favoritesOnly);
+        return emitter;
+    }
+
+    @EventListener
+    public void onSnapshotPublished(QuoteSnapshotPublishedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        List<Instrument> changes = event.current().changesSince(event.previous());
+        if (!changes.isEmpty()) {
+            long version = event.current().getVersion();
+            fanOutExecutor.execute(() -> fanOut(version, changes));
+        }
+    }
+
+    // Keeps idle connections from being closed by proxies
+    @Scheduled(fixedRateString = "${app.market.stream.heartbeat-ms:30000}")
+    public void sendHeartbeat() {
+        if (!subscribers.isEmpty()) {
+            fanOutExecutor.execute(() -> subscribers.forEach(
+                    subscriber -> enqueue(subscriber, SseEmitter.event().comment("heartbeat"))));
+        }
+    }
+
+    private void fanOut(long version, List<Instrument> changes) {
+        // Each change is converted once per favorite flag and shared by every subscriber's payload
+        InstrumentResponse[] plain = new InstrumentResponse[changes.size()];
+        InstrumentResponse[] favorite = new InstrumentResponse[changes.size()];
+
+        for (Subscriber subscriber : subscribers) {
+            List<InstrumentResponse> payload = new ArrayList<>(changes.size());
+            for (int i = 0; i < changes.size(); i++) {
+                Instrument instrument = changes.get(i);
+                if (subscriber.favoriteIds.contains(instrument.getId())) {
+                    if (favorite[i] == null) {
+                        favorite[i] = InstrumentResponse.fromInstrument(instrument, true);
+                    }
+                    payload.add(favorite[i]);
+                } else if (!subscriber.favoritesOnly) {
+                    if (plain[i] == null) {
+                        plain[i] = InstrumentResponse.fromInstrument(instrument, false);
+                    }
+                    payload.add(plain[i]);
+                }
+            }
+
+            if (!payload.isEmpty()) {
+                enqueue(subscriber, SseEmitter.event().id(Long.toString(version)).name("quotes").data(payload));
+            }
+        }
+    }
+
+    // Never blocks: a subscriber whose queue is full is dropped instead
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.pending.offer(event)) {
+            logger.debug("Quote stream subscriber fell {} events behind, disconnecting it", queueSize);
+            dropped.increment();
+            close(subscriber);
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senderExecutor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    // Sends everything queued for the subscriber; the emitter is only ever written from here
+    private void drain(Subscriber subscriber) {
+        do {
+            for (SseEmitter.SseEventBuilder event = subscriber.pending.poll(); event != null && !subscriber.closed;
+                    event = subscriber.pending.poll()) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close(subscriber);
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.pending.clear();
+                subscriber.emitter.complete();
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.closed && !subscriber.pending.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private static final class Subscriber {
+
+        final SseEmitter emitter;
+        final LongIdSet favoriteIds;
+        final boolean favoritesOnly;
+        final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, LongIdSet favoriteIds, boolean favoritesOnly, int queueSize) {
+            this.emitter = emitter;
+            this.favoriteIds = favoriteIds;
+            this.favoritesOnly = favoritesOnly;
+            this.pending = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.puente.tradingapp.service.universe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.model.TrackedInstrument;
+import com.puente.tradingapp.repository.FavoriteRepository;
+import com.puente.tradingapp.repository.TrackedInstrumentRepository;
+import com.puente.tradingapp.service.provider.TrackedSymbol;
+import com.puente.tradingapp.service.provider.TrackedSymbol.Tier;
+import com.puente.tradingapp.service.ratelimit.RateLimiterRegistry;
+import com.puente.tradingapp.util.ThreadFactories;
+
+/**
+ * The set of symbols market data is ingested for, loaded from the
+ * {@code tracked_instruments} table. The table is seeded from a CSV file on
+ * first start, and the {@code STOCK_SYMBOLS}/{@code CRYPTO_SYMBOLS} lists,
+ * when set, narrow it down to (and add) the listed symbols. The first load
+ * runs in the background once the application is ready, so startup never
+ * waits on the database for it.
+ *
+ * <p>Each reload also splits the universe into refresh tiers: the most
+ * favorited symbols are HOT and listed first, so they are fetched first and
+ * every cycle; the rest are COLD.
+ */
+@Component
+public class InstrumentUniverse {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentUniverse.class);
+
+    @Autowired
+    private TrackedInstrumentRepository trackedInstrumentRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Value("${app.market.universe.seed:classpath:market/instruments.csv}")
+    private Resource seed;
+
+    @Value("${app.market.universe.stock-symbols:}")
+    private Set<String> stockSymbols;
+
+    @Value("${app.market.universe.crypto-symbols:}")
+    private Set<String> cryptoSymbols;
+
+    @Value("${app.market.universe.hot-min-favorites:1}")
+    private long hotMinFavorites;
+
+    @Value("${app.market.universe.hot-max-size:100}")
+    private int hotMaxSize;
+
+    @Value("${app.market.hedging.symbols:}")
+    private Set<String> hedgedSymbols;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final AtomicReference<List<TrackedSymbol>> symbols = new AtomicReference<>(List.of());
+
+    // Counted down when the first load finishes, whether or not it succeeded
+    private final CountDownLatch firstLoad = new CountDownLatch(1);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUniverse() {
+        ThreadFactories.named("instrument-universe-", virtualThreads).newThread(() -> {
+            try {
+                seedIfEmpty();
+                addConfiguredSymbols();
+                reload();
+            } catch (Exception e) {
+                logger.error("Error loading instrument universe: {}", e.getMessage());
+            } finally {
+                firstLoad.countDown();
+            }
+        }).start();
+    }
+
+    @Scheduled(fixedDelayString = "${app.market.universe.reload-interval-ms:300000}",
+            initialDelayString = "${app.market.universe.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Error reloading instrument universe: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Symbols to ingest, HOT tier first and ordered by how many users
+     * favorited them. Waits for the first load if it is still running.
+     */
+    public List<TrackedSymbol> getSymbols() {
+        if (firstLoad.getCount() > 0) {
+            try {
+                firstLoad.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return symbols.get();
+    }
+
+    /**
+     * Re-reads the tracked instruments and favorite counts and swaps in the
+     * new universe.
+     *
+     * @return the number of symbols now tracked
+     */
+    public int reload() {
+        Map<String, Long> favoriteCounts = new HashMap<>();
+        for (Object[] row : favoriteRepository.countFavoritesBySymbol()) {
+            favoriteCounts.put((String) row[0], (Long) row[1]);
+        }
+
+        // The most favorited symbols, up to the hot tier's size
+        Set<String> hot = new HashSet<>();
+        favoriteCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= hotMinFavorites)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(hotMaxSize)
+                .forEach(entry -> hot.add(entry.getKey()));
+
+        List<TrackedSymbol> loaded = new ArrayList<>();
+        for (TrackedInstrument instrument : trackedInstrumentRepository.findByEnabledTrueOrderByIdAsc()) {
+            if (!isConfigured(instrument.getSymbol(), instrument.getType())) {
+                continue;
+            }
+            boolean isHot = hot.contains(instrument.getSymbol());
+            loaded.add(new TrackedSymbol(instrument.getSymbol(), instrument.getName(), instrument.getType(),
+                    Map.copyOf(instrument.getProviderSymbols()), isHot ? Tier.HOT : Tier.COLD,
+                    favoriteCounts.getOrDefault(instrument.getSymbol(), 0L),
+                    isHot || hedgedSymbols.contains(instrument.getSymbol())));
+        }
+
+        // Stable sort keeps table order within a tier
+        loaded.sort(Comparator.comparing(TrackedSymbol::tier)
+                .thenComparing(symbol -> -symbol.favorites()));
+
+        symbols.set(List.copyOf(loaded));
+        logger.info("Tracking {} instruments ({} hot)", loaded.size(),
+                loaded.stream().filter(symbol -> symbol.tier() == Tier.HOT).count());
+        return loaded.size();
+    }
+
+    private boolean isConfigured(String symbol, InstrumentType type) {
+        Set<String> configured = configuredSymbols(type);
+        return configured.isEmpty() || configured.contains(symbol);
+    }
+
+    private Set<String> configuredSymbols(InstrumentType type) {
+        switch (type) {
+            case STOCK:
+                return stockSymbols;
+            case CRYPTO:
+                return cryptoSymbols;
+            default:
+                return Set.of();
+        }
+    }
+
+    private void seedIfEmpty() {
+        if (trackedInstrumentRepository.count() > 0) {
+            return;
+        }
+
+        // symbol,type,coingecko_id,name - the name goes last so it may contain commas
+        List<TrackedInstrument> instruments = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(seed.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] columns = line.split(",", 4);
+                TrackedInstrument instrument = TrackedInstrument.builder()
+                        .symbol(columns[0].trim())
+                        .type(InstrumentType.valueOf(columns[1].trim()))
+                        .name(columns[3].trim())
+                        .build();
+                if (!columns[2].isBlank()) {
+                    instrument.getProviderSymbols().put(RateLimiterRegistry.COINGECKO, columns[2].trim());
+                }
+                instruments.add(instrument);
+            }
+        } catch (IOException e) {
+            logger.error("Error reading instrument seed {}: {}", seed, e.getMessage());
+            return;
+        }
+
+        trackedInstrumentRepository.saveAll(instruments);
+        logger.info("Seeded {} tracked instruments from {}", instruments.size(), seed);
+    }
+
+    // Symbols named in STOCK_SYMBOLS/CRYPTO_SYMBOLS but not in the table are tracked under their own name
+    private void addConfiguredSymbols() {
+        List<TrackedInstrument> added = new ArrayList<>();
+        for (InstrumentType type : InstrumentType.values()) {
+            for (String symbol : configuredSymbols(type)) {
+                if (!trackedInstrumentRepository.existsBySymbol(symbol)) {
+                    added.add(TrackedInstrument.builder().symbol(symbol).name(symbol).type(type).build());
+                }
+            }
+        }
+
+        if (!added.isEmpty()) {
+            trackedInstrumentRepository.saveAll(added);
+            logger.info("Added {} configured symbols to the tracked instruments", added.size());
+        }
+    }
+}
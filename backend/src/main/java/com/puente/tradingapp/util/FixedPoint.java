@@ -0,0 +1,72 @@
+package com.puente.tradingapp.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Decimal values held as scaled {@code long}s: prices with eight decimal
+ * places, percentages with four. {@link #NULL} stands for a missing value, so
+ * columns of them need no boxing.
+ */
+public final class FixedPoint {
+
+    public static final int PRICE_SCALE = 8;
+    public static final int PERCENT_SCALE = 4;
+    public static final long NULL = Long.MIN_VALUE;
+
+    // The largest magnitude a scaled value may have; anything beyond is saturated to it
+    private static final long MAX = Long.MAX_VALUE;
+    private static final BigDecimal MAX_DECIMAL = BigDecimal.valueOf(MAX);
+
+    private FixedPoint() {
+    }
+
+    public static long toScaled(BigDecimal value, int scale) {
+        return toScaled(value, scale, RoundingMode.HALF_UP);
+    }
+
+    public static long toScaled(BigDecimal value, int scale, RoundingMode rounding) {
+        if (value == null) {
+            return NULL;
+        }
+        BigDecimal scaled = value.setScale(scale, rounding).movePointRight(scale);
+        if (scaled.abs().compareTo(MAX_DECIMAL) > 0) {
+            return scaled.signum() > 0 ? MAX : -MAX;
+        }
+        return scaled.longValue();
+    }
+
+    public static BigDecimal toDecimal(long value, int scale) {
+        return value == NULL ? null : BigDecimal.valueOf(value, scale);
+    }
+
+    // Whether the value converts at this scale without rounding or saturating
+    public static boolean isExact(BigDecimal value, int scale) {
+        if (value.scale() > scale && value.stripTrailingZeros().scale() > scale) {
+            return false;
+        }
+        return value.precision() - value.scale() + scale < 19;
+    }
+
+    /**
+     * Percent change from {@code previous} to {@code current}, both at the
+     * same scale, returned at {@link #PERCENT_SCALE}. The ratio is rounded
+     * half up to four decimal places before it becomes a percentage, which
+     * keeps the two decimal places providers report.
+     *
+     * @throws ArithmeticException if previous is zero or the change overflows
+     */
+    public static long percentChange(long current, long previous) {
+        long ratio = divideHalfUp(Math.multiplyExact(Math.subtractExact(current, previous), 10_000L), previous);
+        return Math.multiplyExact(ratio, 100L);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
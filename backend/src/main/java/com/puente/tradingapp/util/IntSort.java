@@ -0,0 +1,116 @@
+package com.puente.tradingapp.util;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sorts an {@code int[]} with a comparator over the ints themselves, typically
+ * slot numbers compared by the columns they point into, or by a {@code long}
+ * key per int. A merge sort, so no element is boxed and the order is stable.
+ */
+public final class IntSort {
+
+    // Ranges this short are insertion sorted rather than split further
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private IntSort() {
+    }
+
+    public static void sort(int[] values, IntBinaryOperator comparator) {
+        if (values.length < 2) {
+            return;
+        }
+        mergeSort(values.clone(), values, 0, values.length, comparator);
+    }
+
+    /**
+     * Sorts {@code values[from, to)} by {@code keys[value]}, ascending. Comparing
+     * the keys directly rather than through a comparator is what makes sorting
+     * by a numeric column cheap.
+     */
+    public static void sort(int[] values, int from, int to, long[] keys) {
+        if (to - from < 2) {
+            return;
+        }
+        mergeSort(values.clone(), values, from, to, keys);
+    }
+
+    // Sorts source[from, to) into target[from, to); both start with the same contents
+    private static void mergeSort(int[] source, int[] target, int from, int to, long[] keys) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(target, from, to, keys);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(target, source, from, mid, keys);
+        mergeSort(target, source, mid, to, keys);
+
+        if (keys[source[mid - 1]] <= keys[source[mid]]) {
+            System.arraycopy(source, from, target, from, to - from);
+            return;
+        }
+
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < mid && keys[source[left]] <= keys[source[right]]) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(int[] values, int from, int to, long[] keys) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            long key = keys[value];
+            int j = i - 1;
+            while (j >= from && keys[values[j]] > key) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    // Sorts source[from, to) into target[from, to); both start with the same contents
+    private static void mergeSort(int[] source, int[] target, int from, int to, IntBinaryOperator comparator) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(target, from, to, comparator);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(target, source, from, mid, comparator);
+        mergeSort(target, source, mid, to, comparator);
+
+        // Already in order across the halves
+        if (comparator.applyAsInt(source[mid - 1], source[mid]) <= 0) {
+            System.arraycopy(source, from, target, from, to - from);
+            return;
+        }
+
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < mid && comparator.applyAsInt(source[left], source[right]) <= 0) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(int[] values, int from, int to, IntBinaryOperator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            int j = i - 1;
+            while (j >= from && comparator.applyAsInt(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.puente.tradingapp.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of entity ids backed by a sorted {@code long[]}. Lookups are a
+ * binary search and there is no boxing, so it stays compact when cached per
+ * user.
+ */
+public final class LongIdSet {
+
+    public static final LongIdSet EMPTY = new LongIdSet(new long[0]);
+
+    private final long[] ids;
+
+    private LongIdSet(long[] sortedIds) {
+        this.ids = sortedIds;
+    }
+
+    public static LongIdSet of(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[] values = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            values[i++] = id;
+        }
+        Arrays.sort(values);
+
+        // Drop duplicates in place
+        int size = 1;
+        for (int j = 1; j < values.length; j++) {
+            if (values[j] != values[size - 1]) {
+                values[size++] = values[j];
+            }
+        }
+        return new LongIdSet(size == values.length ? values : Arrays.copyOf(values, size));
+    }
+
+    public boolean contains(Long id) {
+        return id != null && Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    // 64-bit hash of the contents, for use in cache validators
+    public long fingerprint() {
+        long hash = 1125899906842597L;
+        for (long id : ids) {
+            hash = 31 * hash + id;
+        }
+        return hash;
+    }
+}
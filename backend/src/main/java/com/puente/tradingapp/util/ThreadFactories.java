@@ -0,0 +1,20 @@
+package com.puente.tradingapp.util;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Thread factories for the application's own executors, making virtual
+ * threads when {@code spring.threads.virtual.enabled} is set so the blocking
+ * ingestion work follows the same mode as request handling.
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+    }
+
+    public static ThreadFactory named(String prefix, boolean virtual) {
+        return virtual ? Thread.ofVirtual().name(prefix, 1).factory() : new CustomizableThreadFactory(prefix);
+    }
+}
@@ -0,0 +1,158 @@
+package com.puente.tradingapp.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puente.tradingapp.TestDatabase;
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.repository.InstrumentRepository;
+import com.puente.tradingapp.repository.UserRepository;
+import com.puente.tradingapp.service.FavoriteService;
+import com.puente.tradingapp.service.snapshot.QuoteSnapshotCache;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the number of SQL statements behind {@code GET /market/instruments}:
+ * the quotes come from the snapshot and the principal from the token, so the
+ * only query is the user's favorite ids, and only until they are cached.
+ */
+@SpringBootTest(properties = {
+        "app.market.scheduler.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class InstrumentListingQueryCountTest {
+
+    private static final int INSTRUMENTS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private QuoteSnapshotCache snapshotCache;
+
+    private Statistics statistics;
+    private List<Instrument> instruments;
+    private String token;
+    private Long userId;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Instrument> updates = new ArrayList<>();
+        for (int i = 0; i < INSTRUMENTS; i++) {
+            updates.add(Instrument.builder()
+                    .symbol("SYM" + i)
+                    .name("Instrument " + i)
+                    .type(InstrumentType.STOCK)
+                    .currentPrice(new BigDecimal("100.00"))
+                    .lastUpdated(LocalDateTime.now())
+                    .build());
+        }
+        instruments = instrumentRepository.upsertAll(updates);
+        snapshotCache.publish(instrumentRepository.findAll());
+
+        String username = "listing" + System.nanoTime();
+        mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"username": "%s", "email": "%s@example.com", "password": "listing-password",
+                        "firstName": "Query", "lastName": "Count"}
+                        """.formatted(username, username)))
+                .andExpect(status().isOk());
+        String login = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"username": "%s", "password": "listing-password"}
+                        """.formatted(username)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        token = objectMapper.readTree(login).get("token").asText();
+        userId = userRepository.findByUsername(username).orElseThrow().getId();
+    }
+
+    @Test
+    void listingLoadsFavoritesInOneQueryAndThenFromTheCache() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            favoriteService.addFavorite(userId, instruments.get(i).getId());
+        }
+
+        assertThat(statementsFor(this::list)).isEqualTo(1);
+        assertThat(statementsFor(this::list)).isZero();
+    }
+
+    @Test
+    void changingAFavoriteCostsOneMoreQuery() throws Exception {
+        assertThat(statementsFor(this::list)).isEqualTo(1);
+
+        Long instrumentId = instruments.get(0).getId();
+        favoriteService.addFavorite(userId, instrumentId);
+
+        assertThat(statementsFor(this::list)).isEqualTo(1);
+        mockMvc.perform(get("/market/instruments").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(jsonPath("$[?(@.id == %d)].isFavorite".formatted(instrumentId)).value(true));
+        assertThat(statementsFor(this::list)).isZero();
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void perform() throws Exception;
+    }
+
+    private long statementsFor(Request request) throws Exception {
+        statistics.clear();
+        request.perform();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void list() throws Exception {
+        mockMvc.perform(get("/market/instruments").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(INSTRUMENTS));
+    }
+}
@@ -0,0 +1,79 @@
+package com.puente.tradingapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.puente.tradingapp.TestDatabase;
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class InstrumentRepositoryTest {
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Test
+    void upsertReturnsTheStoredRows() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        instrumentRepository.upsertAll(List.of(instrument("AAPL", "Apple", InstrumentType.STOCK, "100.5", now)));
+
+        Instrument update = instrument("AAPL", "Apple Inc.", InstrumentType.INDEX, null, now.plusMinutes(1));
+        update.setDailyChange(new BigDecimal("1.25"));
+        List<Instrument> stored = instrumentRepository.upsertAll(List.of(update));
+
+        assertThat(stored).singleElement().satisfies(instrument -> {
+            assertThat(instrument.getId()).isNotNull();
+            assertThat(instrument.getName()).isEqualTo("Apple Inc.");
+            assertThat(instrument.getType()).isEqualTo(InstrumentType.INDEX);
+            // A quote field the update doesn't carry keeps its stored value
+            assertThat(instrument.getCurrentPrice()).isEqualByComparingTo("100.5");
+            assertThat(instrument.getDailyChange()).isEqualByComparingTo("1.25");
+            assertThat(instrument.getLastUpdated()).isEqualTo(now.plusMinutes(1));
+        });
+        assertThat(instrumentRepository.findBySymbol("AAPL")).get()
+                .extracting(Instrument::getName, Instrument::getType)
+                .containsExactly("Apple Inc.", InstrumentType.INDEX);
+    }
+
+    @Test
+    void upsertKeepsTheLastUpdatePerSymbol() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Instrument> stored = instrumentRepository.upsertAll(List.of(
+                instrument("BTC", "Bitcoin", InstrumentType.CRYPTO, "60000", now),
+                instrument("ETH", "Ethereum", InstrumentType.CRYPTO, "3000", now),
+                instrument("BTC", "Bitcoin", InstrumentType.CRYPTO, "61000", now)));
+
+        assertThat(stored).extracting(Instrument::getSymbol).containsExactlyInAnyOrder("BTC", "ETH");
+        assertThat(instrumentRepository.findBySymbol("BTC")).get()
+                .extracting(Instrument::getCurrentPrice)
+                .satisfies(price -> assertThat((BigDecimal) price).isEqualByComparingTo("61000"));
+    }
+
+    private static Instrument instrument(String symbol, String name, InstrumentType type, String price,
+            LocalDateTime lastUpdated) {
+        return Instrument.builder()
+                .symbol(symbol)
+                .name(name)
+                .type(type)
+                .currentPrice(price != null ? new BigDecimal(price) : null)
+                .lastUpdated(lastUpdated)
+                .build();
+    }
+}
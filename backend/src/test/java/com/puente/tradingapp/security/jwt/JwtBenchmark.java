@@ -0,0 +1,92 @@
+package com.puente.tradingapp.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.puente.tradingapp.security.service.UserDetailsImpl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Tokens authenticated per second: the single parse that validates the token
+ * and yields its claims, plus rebuilding the principal from them, with the
+ * key and parser built once at startup. Compared against deriving the HMAC
+ * key and building a parser on every call, as JwtUtils did before, and
+ * against the former validate-then-parse-again sequence.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "puente-trading-app-jwt-secret-key-must-be-at-least-256-bits-long";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyId", "current");
+        ReflectionTestUtils.setField(jwtUtils, "previousKeys",
+                "old:previous-trading-app-jwt-secret-key-must-be-at-least-256-bits");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        jwtUtils.initKeys();
+
+        UserDetailsImpl user = UserDetailsImpl.builder()
+                .id(42L)
+                .username("benchmark")
+                .email("benchmark@example.com")
+                .firstName("Bench")
+                .lastName("Mark")
+                .authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                .build();
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Benchmark
+    public UserDetailsImpl validateAndExtract() {
+        Claims claims = jwtUtils.parseValidClaims(token);
+        return jwtUtils.getUserDetailsFromClaims(claims);
+    }
+
+    // The per-call key derivation and parser construction the cached key ring replaced
+    @Benchmark
+    public UserDetailsImpl perCallKeyAndParser() {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return jwtUtils.getUserDetailsFromClaims(claims);
+    }
+
+    @Benchmark
+    public String validateThenParseAgain() {
+        if (!jwtUtils.validateJwtToken(token)) {
+            throw new IllegalStateException("Benchmark token is invalid");
+        }
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+}
@@ -0,0 +1,66 @@
+package com.puente.tradingapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.puente.tradingapp.TestDatabase;
+import com.puente.tradingapp.model.TokenRevocation;
+import com.puente.tradingapp.repository.TokenRevocationRepository;
+
+// Polled by hand, so the scheduled poll never runs in between
+@SpringBootTest(properties = {
+        "app.market.scheduler.enabled=false",
+        "app.jwt.revocation-poll-ms=3600000"
+})
+class TokenRevocationRegistryTest {
+
+    @Autowired
+    private TokenRevocationRegistry registry;
+
+    @Autowired
+    private TokenRevocationRepository revocationRepository;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Test
+    void revocationIsStoredForOtherInstances() {
+        Date issuedAt = new Date(System.currentTimeMillis() - 60_000);
+        registry.revokeClaims(1L);
+
+        assertThat(registry.areClaimsRevoked(1L, issuedAt)).isTrue();
+        assertThat(revocationRepository.findById(1L)).isPresent();
+    }
+
+    @Test
+    void revocationMadeByAnotherInstanceAppliesAfterTheNextPoll() {
+        Date issuedAt = new Date(System.currentTimeMillis() - 60_000);
+        revocationRepository.save(new TokenRevocation(2L, Instant.now()));
+        assertThat(registry.areClaimsRevoked(2L, issuedAt)).isFalse();
+
+        registry.syncRevocations();
+
+        assertThat(registry.areClaimsRevoked(2L, issuedAt)).isTrue();
+        assertThat(registry.areClaimsRevoked(2L, new Date(System.currentTimeMillis() + 1_000))).isFalse();
+    }
+
+    @Test
+    void expiredRevocationsAreDeleted() {
+        revocationRepository.save(new TokenRevocation(3L, Instant.now().minusSeconds(2 * 86_400)));
+
+        registry.syncRevocations();
+
+        assertThat(revocationRepository.findById(3L)).isEmpty();
+        assertThat(registry.areClaimsRevoked(3L, new Date(0))).isFalse();
+    }
+}
@@ -0,0 +1,178 @@
+package com.puente.tradingapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.puente.tradingapp.TestDatabase;
+import com.puente.tradingapp.repository.InstrumentRepository;
+import com.puente.tradingapp.service.MarketDataService;
+import com.puente.tradingapp.service.universe.InstrumentUniverse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Refreshes 100 symbols (50 stocks from Alpha Vantage, 50 coins from
+ * CoinGecko) against a stub server that answers every request after a fixed
+ * delay. Alpha Vantage's rate limit is the bottleneck: the stub records when
+ * each of its requests arrives, so pacing is checked against the quota
+ * without depending on how busy the machine is, and the refresh only has to
+ * beat fetching the stocks one at a time.
+ */
+@SpringBootTest(properties = {
+        "app.market.scheduler.enabled=false",
+        "app.market.hedging.enabled=false",
+        "app.market.universe.seed=classpath:market/refresh-test-instruments.csv",
+        "app.market.ingestion.threads=4",
+        "app.market.providers.alphavantage.requests-per-minute=" + MarketDataRefreshTest.REQUESTS_PER_MINUTE,
+        "app.market.providers.alphavantage.burst=1",
+        "app.market.providers.coingecko.requests-per-minute=" + MarketDataRefreshTest.REQUESTS_PER_MINUTE
+})
+class MarketDataRefreshTest {
+
+    static final int REQUESTS_PER_MINUTE = 1500;
+    private static final int STOCKS = 50;
+    private static final int COINS = 50;
+    private static final long LATENCY_MS = 80;
+
+    private static final ConcurrentLinkedQueue<Long> alphaVantageArrivals = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger coinGeckoRequests = new AtomicInteger();
+    private static final HttpServer stub = startStub();
+
+    @Autowired
+    private MarketDataService marketDataService;
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @Autowired
+    private InstrumentUniverse universe;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+        String baseUrl = "http://localhost:" + stub.getAddress().getPort();
+        registry.add("app.market.alphavantage.base-url", () -> baseUrl);
+        registry.add("app.market.coingecko.base-url", () -> baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void refreshOf100SymbolsIsBoundByTheProviderQuota() {
+        // The universe is seeded in the background once the application is ready; only time the refresh itself
+        assertThat(universe.getSymbols()).hasSize(STOCKS + COINS);
+
+        long start = System.nanoTime();
+        marketDataService.refreshMarketData();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Each stock is a quote plus its weekly series; the coins fit in one batch
+        int expectedRequests = STOCKS * 2;
+        long sequentialMs = expectedRequests * LATENCY_MS + LATENCY_MS;
+
+        List<Long> arrivals = alphaVantageArrivals.stream().sorted().toList();
+        assertThat(arrivals).hasSize(expectedRequests);
+        assertThat(coinGeckoRequests.get()).isEqualTo(1);
+        assertThat(instrumentRepository.count()).isEqualTo(STOCKS + COINS);
+        assertThat(marketDataService.getAllInstruments()).hasSize(STOCKS + COINS);
+
+        // With a burst of 1 the k-th permit is granted at least k intervals after the first, which is granted
+        // after start, and a request can only arrive after its permit
+        long intervalNanos = 60_000_000_000L / REQUESTS_PER_MINUTE;
+        for (int k = 0; k < arrivals.size(); k++) {
+            assertThat(arrivals.get(k) - start)
+                    .as("arrival of Alpha Vantage request %d", k)
+                    .isGreaterThanOrEqualTo(k * intervalNanos);
+        }
+        assertThat(elapsedMs).isLessThan(sequentialMs);
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/query", exchange -> respond(exchange, alphaVantage(params(exchange))));
+            server.createContext("/coins/markets", exchange -> respond(exchange, coinMarkets(params(exchange))));
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String alphaVantage(Map<String, String> params) {
+        alphaVantageArrivals.add(System.nanoTime());
+        return switch (params.get("function")) {
+            case "GLOBAL_QUOTE" -> """
+                    {"Global Quote": {"01. symbol": "%s", "02. open": "100.00", "03. high": "102.00",
+                    "04. low": "99.00", "05. price": "101.00", "06. volume": "1000000",
+                    "07. latest trading day": "2026-10-16", "08. previous close": "100.00"}}
+                    """.formatted(params.get("symbol"));
+            case "TIME_SERIES_WEEKLY" -> """
+                    {"Weekly Time Series": {
+                    "2026-10-16": {"1. open": "98.00", "2. high": "102.00", "3. low": "97.00", "4. close": "101.00", "5. volume": "5000000"},
+                    "2026-10-10": {"1. open": "95.00", "2. high": "99.00", "3. low": "94.00", "4. close": "98.00", "5. volume": "4000000"}}}
+                    """;
+            default -> "{}";
+        };
+    }
+
+    private static String coinMarkets(Map<String, String> params) {
+        coinGeckoRequests.incrementAndGet();
+        StringJoiner coins = new StringJoiner(",", "[", "]");
+        for (String id : params.get("ids").split(",")) {
+            coins.add("""
+                    {"id": "%s", "current_price": 50.5, "price_change_percentage_24h": 1.5,
+                    "price_change_percentage_7d_in_currency": -2.5, "high_24h": 51.0, "low_24h": 49.0,
+                    "total_volume": 123456}
+                    """.formatted(id));
+        }
+        return coins.toString();
+    }
+
+    private static Map<String, String> params(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : exchange.getRequestURI().getRawQuery().split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try {
+            Thread.sleep(LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
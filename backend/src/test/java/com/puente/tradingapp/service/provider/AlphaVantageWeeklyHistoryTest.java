@@ -0,0 +1,158 @@
+package com.puente.tradingapp.service.provider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.puente.tradingapp.TestDatabase;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.model.PriceBar;
+import com.puente.tradingapp.model.PriceBar.BarInterval;
+import com.puente.tradingapp.repository.PriceBarRepository;
+import com.puente.tradingapp.service.provider.TrackedSymbol.Tier;
+import com.puente.tradingapp.service.ratelimit.PermitReservation;
+import com.puente.tradingapp.service.ratelimit.RateLimiterRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A week stored while it was still in progress must not become the close the
+ * next week's change is measured against: later quotes in that week roll into
+ * its bar, so it ends on the week's last quote.
+ */
+@SpringBootTest(properties = {
+        "app.market.scheduler.enabled=false",
+        "app.market.providers.alphavantage.requests-per-minute=6000"
+})
+class AlphaVantageWeeklyHistoryTest {
+
+    private static final String SYMBOL = "WKLY";
+    private static final LocalDate PREVIOUS_WEEK = LocalDate.of(2026, 10, 5);
+    private static final LocalDate WEEK = LocalDate.of(2026, 10, 12);
+
+    private static final AtomicInteger weeklyRequests = new AtomicInteger();
+    private static volatile String tradingDay;
+    private static volatile String price;
+    private static final HttpServer stub = startStub();
+
+    @Autowired
+    private AlphaVantageProvider provider;
+
+    @Autowired
+    private PriceBarRepository priceBarRepository;
+
+    @Autowired
+    private RateLimiterRegistry rateLimiters;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+        registry.add("app.market.alphavantage.base-url", () -> "http://localhost:" + stub.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void partialWeekIsClosedByTheWeeksLastQuote() throws Exception {
+        // Last week is complete; this week was stored from Wednesday's weekly series
+        priceBarRepository.appendAll(List.of(
+                weeklyBar(PREVIOUS_WEEK, "90.00", "92.00", "88.00", "90.00"),
+                weeklyBar(WEEK, "91.00", "96.00", "90.00", "95.00")));
+
+        ProviderQuote friday = quote("2026-10-16", "101.00");
+        assertThat(friday.getWeeklyChange()).isEqualTo(ProviderQuotes.percentChange(new BigDecimal("101.00"),
+                new BigDecimal("90.00")));
+        priceBarRepository.appendAll(friday.getBars());
+
+        PriceBar week = priceBarRepository.findBySymbolAndBarIntervalAndBucketStartBetweenOrderByBucketStartAsc(
+                SYMBOL, BarInterval.WEEKLY, WEEK, WEEK).get(0);
+        assertThat(week.getOpen()).isEqualByComparingTo("91.00");
+        assertThat(week.getHigh()).isEqualByComparingTo("102.00");
+        assertThat(week.getClose()).isEqualByComparingTo("101.00");
+
+        // Next Monday measures against Friday's close, not the stored mid-week one
+        ProviderQuote monday = quote("2026-10-19", "102.00");
+        assertThat(monday.getWeeklyChange()).isEqualTo(ProviderQuotes.percentChange(new BigDecimal("102.00"),
+                new BigDecimal("101.00")));
+        assertThat(weeklyRequests.get()).isZero();
+    }
+
+    private ProviderQuote quote(String day, String quotePrice) throws Exception {
+        tradingDay = day;
+        price = quotePrice;
+        PermitReservation permits = rateLimiters
+                .acquire(RateLimiterRegistry.ALPHA_VANTAGE, 2, Duration.ofSeconds(5), Duration.ofSeconds(5))
+                .orElseThrow();
+        try {
+            TrackedSymbol symbol = new TrackedSymbol(SYMBOL, SYMBOL, InstrumentType.STOCK, Map.of(), Tier.COLD, 0, false);
+            return provider.fetchQuote(symbol, permits).orElseThrow();
+        } finally {
+            permits.releaseUnused();
+        }
+    }
+
+    private static PriceBar weeklyBar(LocalDate weekStart, String open, String high, String low, String close) {
+        return PriceBar.builder()
+                .symbol(SYMBOL)
+                .barInterval(BarInterval.WEEKLY)
+                .bucketStart(weekStart)
+                .open(new BigDecimal(open))
+                .high(new BigDecimal(high))
+                .low(new BigDecimal(low))
+                .close(new BigDecimal(close))
+                .volume(1000L)
+                .build();
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/query", AlphaVantageWeeklyHistoryTest::respond);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        String body;
+        if (query.contains("function=GLOBAL_QUOTE")) {
+            body = """
+                    {"Global Quote": {"01. symbol": "%s", "02. open": "100.00", "03. high": "102.00",
+                    "04. low": "99.00", "05. price": "%s", "06. volume": "1000000",
+                    "07. latest trading day": "%s", "08. previous close": "100.00"}}
+                    """.formatted(SYMBOL, price, tradingDay);
+        } else {
+            weeklyRequests.incrementAndGet();
+            body = "{}";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
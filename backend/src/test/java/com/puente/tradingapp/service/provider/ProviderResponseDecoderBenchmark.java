@@ -0,0 +1,92 @@
+package com.puente.tradingapp.service.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-response cost of decoding Alpha Vantage's long series: streaming only the
+ * entries a fetch keeps, against the former body-to-String plus readTree of the
+ * whole document. Run with -prof gc to compare allocation per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProviderResponseDecoderBenchmark {
+
+    private static final String WEEKLY_FIELD = "Weekly Time Series";
+    private static final String CRYPTO_DAILY_FIELD = "Time Series (Digital Currency Daily)";
+
+    private final ProviderResponseDecoder decoder = new ProviderResponseDecoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] weeklyBody;
+    private byte[] cryptoDailyBody;
+
+    @Setup
+    public void setUp() {
+        // About 25 years of weeks and 5 years of days, the size of the full series Alpha Vantage returns
+        weeklyBody = series(WEEKLY_FIELD, 1300, 7);
+        cryptoDailyBody = series(CRYPTO_DAILY_FIELD, 1800, 1);
+    }
+
+    @Benchmark
+    public JsonNode weeklyStreaming() throws IOException {
+        return decoder.readObjectEntries(new ByteArrayInputStream(weeklyBody), WEEKLY_FIELD, 104);
+    }
+
+    @Benchmark
+    public JsonNode weeklyReadTree() throws IOException {
+        return objectMapper.readTree(new String(weeklyBody, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public JsonNode cryptoDailyStreaming() throws IOException {
+        return decoder.readObjectEntries(new ByteArrayInputStream(cryptoDailyBody), CRYPTO_DAILY_FIELD, 8);
+    }
+
+    @Benchmark
+    public JsonNode cryptoDailyReadTree() throws IOException {
+        return objectMapper.readTree(new String(cryptoDailyBody, StandardCharsets.UTF_8));
+    }
+
+    // A series document shaped like Alpha Vantage's, most recent entry first
+    private static byte[] series(String field, int entries, int daysApart) {
+        StringBuilder json = new StringBuilder()
+                .append("{\"Meta Data\":{\"1. Information\":\"Series\",\"2. Symbol\":\"BENCH\"},\"")
+                .append(field).append("\":{");
+        LocalDate day = LocalDate.of(2026, 10, 16);
+        for (int entry = 0; entry < entries; entry++) {
+            double close = 100 + (entry % 50);
+            if (entry > 0) {
+                json.append(',');
+            }
+            json.append('"').append(day.minusDays((long) entry * daysApart)).append("\":{")
+                    .append("\"1. open\":\"").append(close - 1).append("\",")
+                    .append("\"2. high\":\"").append(close + 2).append("\",")
+                    .append("\"3. low\":\"").append(close - 2).append("\",")
+                    .append("\"4. close\":\"").append(close).append("\",")
+                    .append("\"5. volume\":\"").append(1_000_000 + entry).append("\"}");
+        }
+        return json.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
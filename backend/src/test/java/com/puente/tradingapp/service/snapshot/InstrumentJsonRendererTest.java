@@ -0,0 +1,93 @@
+package com.puente.tradingapp.service.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.payload.response.InstrumentResponse;
+import com.puente.tradingapp.util.LongIdSet;
+
+/**
+ * The pre-rendered list must be byte for byte what Jackson writes for the
+ * response objects, trailing zeros included.
+ */
+class InstrumentJsonRendererTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final InstrumentJsonRenderer renderer = new InstrumentJsonRenderer();
+    private QuoteSnapshot snapshot;
+
+    @BeforeEach
+    void publishSnapshot() {
+        ReflectionTestUtils.setField(renderer, "objectMapper", objectMapper);
+        renderer.createSegmentWriter();
+
+        QuoteSnapshotCache cache = new QuoteSnapshotCache();
+        ReflectionTestUtils.setField(cache, "eventPublisher", (ApplicationEventPublisher) event -> {
+        });
+        snapshot = cache.publish(List.of(
+                instrument(1, "AAA", "100.00", "1.50", "0.0000"),
+                instrument(2, "BBB", "0.00012300", "-2.10", null)));
+    }
+
+    @Test
+    void listWithoutFavoritesMatchesJackson() throws IOException {
+        RenderedInstruments rendered = renderer.render(snapshot);
+
+        String json = new String(rendered.toJson(LongIdSet.EMPTY), StandardCharsets.UTF_8);
+        assertThat(json).isEqualTo(jackson(false, false));
+        assertThat(json).contains("\"currentPrice\":100.00", "\"dailyChange\":1.50", "\"weeklyChange\":0.0000");
+        assertThat(gunzip(rendered.toGzip(LongIdSet.EMPTY))).isEqualTo(json);
+    }
+
+    @Test
+    void listWithFavoritesMatchesJackson() throws IOException {
+        RenderedInstruments rendered = renderer.render(snapshot);
+        LongIdSet favoriteIds = LongIdSet.of(List.of(2L));
+
+        String json = new String(rendered.toJson(favoriteIds), StandardCharsets.UTF_8);
+        assertThat(json).isEqualTo(jackson(false, true));
+        assertThat(gunzip(rendered.toGzip(favoriteIds))).isEqualTo(json);
+    }
+
+    private String jackson(boolean firstFavorite, boolean secondFavorite) throws IOException {
+        return objectMapper.writeValueAsString(List.of(
+                InstrumentResponse.fromInstrument(snapshot.getColumns().instrument(0), firstFavorite),
+                InstrumentResponse.fromInstrument(snapshot.getColumns().instrument(1), secondFavorite)));
+    }
+
+    private static String gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Instrument instrument(long id, String symbol, String price, String dailyChange, String weeklyChange) {
+        return Instrument.builder()
+                .id(id)
+                .symbol(symbol)
+                .name(symbol + " Inc.")
+                .type(InstrumentType.STOCK)
+                .currentPrice(new BigDecimal(price))
+                .dailyChange(new BigDecimal(dailyChange))
+                .weeklyChange(weeklyChange != null ? new BigDecimal(weeklyChange) : null)
+                .volume(1000L)
+                .lastUpdated(LocalDateTime.of(2026, 10, 16, 9, 30))
+                .build();
+    }
+}
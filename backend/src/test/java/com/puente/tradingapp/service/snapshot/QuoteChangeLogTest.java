@@ -0,0 +1,91 @@
+package com.puente.tradingapp.service.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+
+/**
+ * Each cache stands in for one boot of one instance: its versions start over
+ * at 1, so only its own cursors may be answered with a delta.
+ */
+class QuoteChangeLogTest {
+
+    // Each quote is a second newer than the last, so every update counts as a change
+    private LocalDateTime clock = LocalDateTime.of(2026, 10, 16, 9, 30);
+
+    @Test
+    void cursorFromTheSameCacheGetsTheChangesSince() {
+        QuoteChangeLog changeLog = changeLog();
+        QuoteSnapshotCache cache = cache(changeLog);
+        cache.publish(List.of(instrument(1, "AAA", "10.00"), instrument(2, "BBB", "20.00")));
+        ChangeCursor cursor = cache.current().getCursor();
+
+        cache.publishUpdates(List.of(instrument(2, "BBB", "21.00")));
+
+        QuoteChanges changes = changeLog.changesSince(cursor).orElseThrow();
+        assertThat(changes.full()).isFalse();
+        assertThat(changes.cursor()).isEqualTo(cache.current().getCursor());
+        assertThat(changes.instruments()).extracting(Instrument::getSymbol).containsExactly("BBB");
+    }
+
+    @Test
+    void cursorFromAnEarlierBootGetsEverything() {
+        QuoteSnapshotCache before = cache(changeLog());
+        before.publish(List.of(instrument(1, "AAA", "10.00"), instrument(2, "BBB", "20.00")));
+        ChangeCursor oldCursor = before.current().getCursor();
+
+        // After a restart the new cache reaches the old cursor's version again with different changes
+        QuoteChangeLog changeLog = changeLog();
+        QuoteSnapshotCache after = cache(changeLog);
+        after.publish(List.of(instrument(1, "AAA", "11.00"), instrument(2, "BBB", "20.00")));
+        after.publishUpdates(List.of(instrument(1, "AAA", "12.00")));
+        after.publishUpdates(List.of(instrument(2, "BBB", "22.00")));
+        assertThat(oldCursor.version()).isBetween(1L, after.current().getVersion());
+
+        assertThat(changeLog.changesSince(oldCursor)).isEmpty();
+        QuoteChanges changes = changeLog.changesSince(oldCursor)
+                .orElseGet(() -> QuoteChanges.full(after.current()));
+        assertThat(changes.full()).isTrue();
+        assertThat(changes.instruments()).extracting(Instrument::getSymbol).containsExactlyInAnyOrder("AAA", "BBB");
+    }
+
+    @Test
+    void cursorSurvivesEncoding() {
+        ChangeCursor cursor = new ChangeCursor(-42L, 7);
+
+        assertThat(ChangeCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    private static QuoteChangeLog changeLog() {
+        QuoteChangeLog changeLog = new QuoteChangeLog();
+        ReflectionTestUtils.setField(changeLog, "retention", 16);
+        return changeLog;
+    }
+
+    private static QuoteSnapshotCache cache(QuoteChangeLog changeLog) {
+        QuoteSnapshotCache cache = new QuoteSnapshotCache();
+        ReflectionTestUtils.setField(cache, "eventPublisher",
+                (ApplicationEventPublisher) event -> changeLog.onSnapshotPublished((QuoteSnapshotPublishedEvent) event));
+        return cache;
+    }
+
+    private Instrument instrument(long id, String symbol, String price) {
+        return Instrument.builder()
+                .id(id)
+                .symbol(symbol)
+                .name(symbol)
+                .type(InstrumentType.STOCK)
+                .currentPrice(new BigDecimal(price))
+                .lastUpdated(clock = clock.plusSeconds(1))
+                .build();
+    }
+}
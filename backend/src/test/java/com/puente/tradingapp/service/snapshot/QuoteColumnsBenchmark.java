@@ -0,0 +1,222 @@
+package com.puente.tradingapp.service.snapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.puente.tradingapp.model.Instrument;
+import com.puente.tradingapp.model.Instrument.InstrumentType;
+import com.puente.tradingapp.service.snapshot.InstrumentIndex.SortField;
+import com.puente.tradingapp.util.FixedPoint;
+
+/**
+ * The snapshot's fixed-point columns against the {@code BigDecimal} entity
+ * list they replaced, over a universe of 5000 instruments: the first page by
+ * daily change (which sorts the whole snapshot, also against the boxed
+ * {@code Integer[]} view sort), a daily-change range scan, the change
+ * computation and publishing an ingestion flush. Run with -prof gc to compare
+ * allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteColumnsBenchmark {
+
+    private static final int INSTRUMENTS = 5000;
+    private static final int FLUSHED = 100;
+    private static final int PAGE_SIZE = 50;
+    private static final BigDecimal MIN_CHANGE = new BigDecimal("-1.00");
+    private static final BigDecimal MAX_CHANGE = new BigDecimal("1.00");
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private static final Comparator<Instrument> BY_DAILY_CHANGE_DESC = Comparator
+            .comparing(Instrument::getDailyChange, Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder()))
+            .thenComparing(Instrument::getId);
+
+    private List<Instrument> instruments;
+    private List<Instrument> flushed;
+    private QuoteColumns columns;
+
+    private BigDecimal[] prices;
+    private BigDecimal[] previousCloses;
+    private long[] scaledPrices;
+    private long[] scaledPreviousCloses;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        instruments = new ArrayList<>(INSTRUMENTS);
+        prices = new BigDecimal[INSTRUMENTS];
+        previousCloses = new BigDecimal[INSTRUMENTS];
+        scaledPrices = new long[INSTRUMENTS];
+        scaledPreviousCloses = new long[INSTRUMENTS];
+
+        for (int i = 0; i < INSTRUMENTS; i++) {
+            BigDecimal price = BigDecimal.valueOf(1_000 + random.nextInt(50_000_000), 2);
+            BigDecimal previousClose = price.add(BigDecimal.valueOf(random.nextInt(2_001) - 1_000, 2));
+            instruments.add(instrument(i, price, previousClose, random));
+            prices[i] = price;
+            previousCloses[i] = previousClose;
+            scaledPrices[i] = FixedPoint.toScaled(price, FixedPoint.PRICE_SCALE);
+            scaledPreviousCloses[i] = FixedPoint.toScaled(previousClose, FixedPoint.PRICE_SCALE);
+        }
+        columns = new QuoteColumns(instruments);
+
+        flushed = new ArrayList<>(FLUSHED);
+        for (int i = 0; i < FLUSHED; i++) {
+            Instrument instrument = instruments.get(random.nextInt(INSTRUMENTS));
+            flushed.add(instrument(instrument.getId().intValue() - 1, prices[i], previousCloses[i], random));
+        }
+    }
+
+    // A fresh index each time, so the view is sorted rather than served from the cache
+    @Benchmark
+    public InstrumentPage firstPageByDailyChangeColumns() {
+        return new InstrumentIndex(1, columns).page(new InstrumentQuery(null, null, null, null, null, null),
+                SortField.DAILY_CHANGE, Direction.DESC, null, PAGE_SIZE);
+    }
+
+    // Sorting a boxed view of the slots with the same comparison, as the index did before the primitive sort
+    @Benchmark
+    public List<Instrument> firstPageByDailyChangeBoxed() {
+        long[] values = columns.dailyChange;
+        long[] ids = columns.ids;
+        Integer[] view = new Integer[columns.size()];
+        for (int slot = 0; slot < view.length; slot++) {
+            view[slot] = slot;
+        }
+        Arrays.sort(view, (a, b) -> {
+            boolean aMissing = values[a] == FixedPoint.NULL;
+            boolean bMissing = values[b] == FixedPoint.NULL;
+            int result = aMissing || bMissing
+                    ? Boolean.compare(aMissing, bMissing)
+                    : Long.compare(values[b], values[a]);
+            return result != 0 ? result : Long.compare(ids[a], ids[b]);
+        });
+        List<Instrument> page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(columns.instrument(view[i]));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<Instrument> firstPageByDailyChangeEntities() {
+        List<Instrument> sorted = new ArrayList<>(instruments);
+        sorted.sort(BY_DAILY_CHANGE_DESC);
+        return new ArrayList<>(sorted.subList(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public int dailyChangeRangeColumns() {
+        long min = FixedPoint.toScaled(MIN_CHANGE, FixedPoint.PERCENT_SCALE);
+        long max = FixedPoint.toScaled(MAX_CHANGE, FixedPoint.PERCENT_SCALE);
+        long[] dailyChange = columns.dailyChange;
+        int count = 0;
+        for (int slot = 0; slot < dailyChange.length; slot++) {
+            long value = dailyChange[slot];
+            if (value != FixedPoint.NULL && value >= min && value <= max) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int dailyChangeRangeEntities() {
+        int count = 0;
+        for (Instrument instrument : instruments) {
+            BigDecimal value = instrument.getDailyChange();
+            if (value != null && value.compareTo(MIN_CHANGE) >= 0 && value.compareTo(MAX_CHANGE) <= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long percentChangeFixedPoint() {
+        long sum = 0;
+        for (int i = 0; i < INSTRUMENTS; i++) {
+            sum += FixedPoint.percentChange(scaledPrices[i], scaledPreviousCloses[i]);
+        }
+        return sum;
+    }
+
+    // The arithmetic ingestion used before fixed point
+    @Benchmark
+    public BigDecimal percentChangeBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < INSTRUMENTS; i++) {
+            sum = sum.add(prices[i].subtract(previousCloses[i])
+                    .divide(previousCloses[i], 4, RoundingMode.HALF_UP)
+                    .multiply(HUNDRED));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public QuoteColumns publishFlushColumns() {
+        return columns.withUpdates(flushed);
+    }
+
+    // Merging the flushed rows into the entity list by symbol and indexing the result, as publishing did when the
+    // snapshot held entities
+    @Benchmark
+    public Map<String, Instrument> publishFlushEntities() {
+        Map<String, Instrument> merged = new LinkedHashMap<>();
+        for (Instrument instrument : instruments) {
+            merged.put(instrument.getSymbol(), instrument);
+        }
+        for (Instrument instrument : flushed) {
+            merged.put(instrument.getSymbol(), instrument);
+        }
+        List<Instrument> list = new ArrayList<>(merged.values());
+        Map<String, Instrument> bySymbol = new HashMap<>(list.size() * 2);
+        for (Instrument instrument : list) {
+            bySymbol.put(instrument.getSymbol(), instrument);
+        }
+        return bySymbol;
+    }
+
+    private static Instrument instrument(int i, BigDecimal price, BigDecimal previousClose, Random random) {
+        return Instrument.builder()
+                .id((long) i + 1)
+                .symbol(String.format("SYM%05d", i))
+                .name("Instrument " + i)
+                .type(i % 2 == 0 ? InstrumentType.STOCK : InstrumentType.CRYPTO)
+                .currentPrice(price)
+                .dailyChange(price.subtract(previousClose).multiply(HUNDRED).divide(previousClose, 2,
+                        RoundingMode.HALF_UP))
+                .weeklyChange(BigDecimal.valueOf(random.nextInt(4_001) - 2_000, 2))
+                .dailyHigh(price.add(BigDecimal.ONE))
+                .dailyLow(price.subtract(BigDecimal.ONE))
+                .volume((long) random.nextInt(10_000_000))
+                .lastUpdated(LocalDateTime.of(2026, 10, 16, 16, 0))
+                .build();
+    }
+}